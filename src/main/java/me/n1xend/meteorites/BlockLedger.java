@@ -0,0 +1,174 @@
+package me.n1xend.meteorites;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Точный набор блоков, поставленных метеоритом.
+ * Позиция упакована в long относительно чанка: {@code [chunkX:22][chunkZ:22][y:12][x&15:4][z&15:4]},
+ * поэтому после сортировки блоки одного чанка идут подряд. В файл пишутся отсортированные
+ * дельты в varint, закодированные Base64 — несколько байт на блок вместо Location.
+ */
+public final class BlockLedger {
+
+    private static final int Y_BIAS = 2048;
+    private static final int MIN_CAPACITY = 16;
+    // 0 — маркер пустой ячейки; сама позиция 0 хранится флагом
+    private static final long EMPTY = 0L;
+
+    private long[] table = new long[MIN_CAPACITY];
+    private int size;
+    private boolean hasZero;
+
+    // === УПАКОВКА ===
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFFL) << 42
+                | ((long) (z >> 4) & 0x3FFFFFL) << 20
+                | ((long) (y + Y_BIAS) & 0xFFFL) << 8
+                | (long) (x & 15) << 4
+                | (z & 15);
+    }
+
+    public static int unpackChunkX(long packed) { return (int) (packed >> 42); }
+    public static int unpackChunkZ(long packed) { return (int) (packed << 22 >> 42); }
+    public static int unpackX(long packed) { return unpackChunkX(packed) << 4 | (int) (packed >> 4 & 15); }
+    public static int unpackY(long packed) { return (int) (packed >> 8 & 0xFFF) - Y_BIAS; }
+    public static int unpackZ(long packed) { return unpackChunkZ(packed) << 4 | (int) (packed & 15); }
+
+    // === НАПОЛНЕНИЕ ===
+    // Открытая адресация с линейным пробированием: ~16 байт на блок без объектов-обёрток
+
+    public synchronized void add(int x, int y, int z) {
+        add(pack(x, y, z));
+    }
+
+    public synchronized void add(long packed) {
+        if (packed == EMPTY) {
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            return;
+        }
+        if (insert(table, packed)) {
+            size++;
+            if (size * 2 > table.length) rehash(table.length * 2);
+        }
+    }
+
+    public synchronized void addAll(BlockLedger other) {
+        for (long packed : other.toArray()) add(packed);
+    }
+
+    public synchronized boolean contains(long packed) {
+        if (packed == EMPTY) return hasZero;
+        int mask = table.length - 1;
+        for (int i = slot(packed, mask); ; i = (i + 1) & mask) {
+            if (table[i] == EMPTY) return false;
+            if (table[i] == packed) return true;
+        }
+    }
+
+    /** Отсортированные позиции: блоки одного чанка идут подряд. */
+    public synchronized long[] toArray() {
+        long[] values = new long[size];
+        int count = 0;
+        if (hasZero) values[count++] = EMPTY;
+        for (long value : table) {
+            if (value != EMPTY) values[count++] = value;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    public synchronized int size() { return size; }
+
+    public synchronized boolean isEmpty() { return size == 0; }
+
+    private static boolean insert(long[] table, long packed) {
+        int mask = table.length - 1;
+        for (int i = slot(packed, mask); ; i = (i + 1) & mask) {
+            if (table[i] == EMPTY) {
+                table[i] = packed;
+                return true;
+            }
+            if (table[i] == packed) return false;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] next = new long[capacity];
+        for (long value : table) {
+            if (value != EMPTY) insert(next, value);
+        }
+        table = next;
+    }
+
+    // Финализатор MurmurHash3: соседние блоки не должны попадать в соседние ячейки
+    private static int slot(long packed, int mask) {
+        long h = packed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    // === СЕРИАЛИЗАЦИЯ ===
+
+    public String encode() {
+        return Base64.getEncoder().encodeToString(toBytes());
+    }
+
+    /** @return пустой список для {@code null} или пустой строки (старые записи без списка блоков) */
+    public static BlockLedger decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) return new BlockLedger();
+        return fromBytes(Base64.getDecoder().decode(encoded));
+    }
+
+    /** Количество и отсортированные дельты в varint — без Base64, для бинарного снимка. */
+    public byte[] toBytes() {
+        long[] values = toArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(values.length * 2 + 4);
+        writeVarLong(out, values.length);
+        long previous = 0;
+        for (long value : values) {
+            // Разность отсортированных значений неотрицательна; переполнение обратимо
+            writeVarLong(out, value - previous);
+            previous = value;
+        }
+        return out.toByteArray();
+    }
+
+    public static BlockLedger fromBytes(byte[] bytes) {
+        BlockLedger ledger = new BlockLedger();
+        if (bytes.length == 0) return ledger;
+        int[] cursor = {0};
+        int count = (int) readVarLong(bytes, cursor);
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value += readVarLong(bytes, cursor);
+            ledger.add(value);
+        }
+        return ledger;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] cursor) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
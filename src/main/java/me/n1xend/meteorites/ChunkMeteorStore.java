@@ -0,0 +1,184 @@
+package me.n1xend.meteorites;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.*;
+
+/**
+ * Принадлежность блоков метеоритам, записанная прямо в PersistentDataContainer чанков.
+ * На каждый метеорит в чанке — два ключа: {@code meteor_<uuid>} с массивом
+ * {@code [expiresAt, count, позиции...]} (три 20-битные позиции внутри чанка на long)
+ * и {@code meteor_<uuid>_materials}. Просроченные записи чистятся, когда чанк загружен:
+ * при ChunkLoadEvent или при обходе загруженных чанков — выгруженные ничего не стоят.
+ */
+public class ChunkMeteorStore {
+
+    private static final String PREFIX = "meteor_";
+    private static final String MATERIALS_SUFFIX = "_materials";
+    private static final int HEADER = 2;
+    private static final int SLOT_BITS = 20;
+    private static final int SLOTS_PER_LONG = 3;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int Y_BIAS = 2048;
+
+    private final CustomMeteorites plugin;
+
+    public ChunkMeteorStore(CustomMeteorites plugin) {
+        this.plugin = plugin;
+    }
+
+    // === ЗАПИСЬ ===
+
+    /**
+     * Раскладывает блоки метеорита по чанкам: одно чтение и одна запись PDC на чанк за вызов,
+     * поэтому блоки передаются пачкой, а не по одному. Пишутся только загруженные чанки —
+     * до приземления последнего блока это вся зона падения (она удерживается тикетами).
+     */
+    public void write(World world, UUID uuid, long expiresAt, Set<String> materials, BlockLedger blocks) {
+        long[] positions = blocks.toArray();
+        int start = 0;
+        // Позиции отсортированы так, что блоки одного чанка идут подряд
+        while (start < positions.length) {
+            int cx = BlockLedger.unpackChunkX(positions[start]);
+            int cz = BlockLedger.unpackChunkZ(positions[start]);
+            int end = start;
+            while (end < positions.length
+                    && BlockLedger.unpackChunkX(positions[end]) == cx
+                    && BlockLedger.unpackChunkZ(positions[end]) == cz) end++;
+
+            if (world.isChunkLoaded(cx, cz)) {
+                append(world.getChunkAt(cx, cz), uuid, expiresAt, materials, positions, start, end);
+            }
+            start = end;
+        }
+    }
+
+    private void append(Chunk chunk, UUID uuid, long expiresAt, Set<String> materials,
+                        long[] positions, int from, int to) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        NamespacedKey key = key(uuid);
+
+        long[] existing = pdc.get(key, PersistentDataType.LONG_ARRAY);
+        int oldCount = existing != null && existing.length >= HEADER ? (int) existing[1] : 0;
+        int count = oldCount + (to - from);
+
+        // Упаковка слотов не зависит от их числа: старые позиции остаются на месте,
+        // новые дописываются в хвост без перепаковки
+        int length = HEADER + (count + SLOTS_PER_LONG - 1) / SLOTS_PER_LONG;
+        long[] data = oldCount > 0 ? Arrays.copyOf(existing, length) : new long[length];
+        data[0] = expiresAt;
+        data[1] = count;
+        for (int i = from; i < to; i++) {
+            long packed = positions[i];
+            setSlot(data, oldCount + i - from, local(BlockLedger.unpackX(packed), BlockLedger.unpackY(packed), BlockLedger.unpackZ(packed)));
+        }
+
+        pdc.set(key, PersistentDataType.LONG_ARRAY, data);
+        if (existing == null) pdc.set(materialsKey(uuid), PersistentDataType.STRING, String.join(",", materials));
+    }
+
+    // === ОЧИСТКА ===
+
+    /** Убирает блоки всех просроченных метеоритов чанка. */
+    public int cleanExpired(Chunk chunk, long now) {
+        int cleaned = 0;
+        for (UUID uuid : meteorsIn(chunk)) {
+            long[] data = chunk.getPersistentDataContainer().get(key(uuid), PersistentDataType.LONG_ARRAY);
+            if (data == null || data.length < HEADER || data[0] <= now) cleaned += Math.max(0, clean(chunk, uuid));
+        }
+        return cleaned;
+    }
+
+    /**
+     * Убирает блоки метеорита в чанке независимо от срока и стирает его запись.
+     *
+     * @return число убранных блоков или {@code -1}, если записи в чанке нет
+     */
+    public int clean(Chunk chunk, UUID uuid) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        NamespacedKey key = key(uuid);
+        NamespacedKey materialsKey = materialsKey(uuid);
+        long[] data = pdc.get(key, PersistentDataType.LONG_ARRAY);
+        String materialNames = pdc.get(materialsKey, PersistentDataType.STRING);
+        pdc.remove(key);
+        pdc.remove(materialsKey);
+        if (data == null || data.length < HEADER || materialNames == null) return -1;
+
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (String name : materialNames.split(",")) {
+            Material mat = Material.matchMaterial(name);
+            if (mat != null) materials.add(mat);
+        }
+
+        int cleaned = 0;
+        int count = (int) data[1];
+        for (int i = 0; i < count; i++) {
+            long slot = getSlot(data, i);
+            Block block = chunk.getBlock((int) (slot >> 4 & 15), (int) (slot >> 8) - Y_BIAS, (int) (slot & 15));
+            // Блок, заменённый игроком, не трогаем
+            if (materials.contains(block.getType())) {
+                block.setType(Material.AIR);
+                cleaned++;
+            }
+        }
+        return cleaned;
+    }
+
+    /** Стирает запись метеорита без очистки — блоки уже убраны движком очистки. */
+    public void forget(Chunk chunk, UUID uuid) {
+        PersistentDataContainer pdc = chunk.getPersistentDataContainer();
+        pdc.remove(key(uuid));
+        pdc.remove(materialsKey(uuid));
+    }
+
+    /** Обход уже загруженных чанков (например, спавн-чанков при старте). */
+    public int sweepLoaded(long now) {
+        int cleaned = 0;
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) cleaned += cleanExpired(chunk, now);
+        }
+        return cleaned;
+    }
+
+    /** Дешёвая проверка для ChunkLoadEvent: есть ли в чанке записи метеоритов. */
+    public boolean hasMeteors(Chunk chunk) {
+        return !meteorsIn(chunk).isEmpty();
+    }
+
+    private List<UUID> meteorsIn(Chunk chunk) {
+        List<UUID> result = new ArrayList<>();
+        String namespace = plugin.getName().toLowerCase(Locale.ROOT);
+        for (NamespacedKey key : chunk.getPersistentDataContainer().getKeys()) {
+            String name = key.getKey();
+            if (!namespace.equals(key.getNamespace()) || !name.startsWith(PREFIX) || name.endsWith(MATERIALS_SUFFIX)) continue;
+            try {
+                result.add(UUID.fromString(name.substring(PREFIX.length())));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return result;
+    }
+
+    // === ФОРМАТ ===
+
+    private NamespacedKey key(UUID uuid) { return new NamespacedKey(plugin, PREFIX + uuid); }
+    private NamespacedKey materialsKey(UUID uuid) { return new NamespacedKey(plugin, PREFIX + uuid + MATERIALS_SUFFIX); }
+
+    private static long local(int x, int y, int z) {
+        return ((long) (y + Y_BIAS) & 0xFFF) << 8 | (x & 15) << 4 | (z & 15);
+    }
+
+    private static long getSlot(long[] data, int index) {
+        return data[HEADER + index / SLOTS_PER_LONG] >>> (index % SLOTS_PER_LONG * SLOT_BITS) & SLOT_MASK;
+    }
+
+    private static void setSlot(long[] data, int index, long value) {
+        data[HEADER + index / SLOTS_PER_LONG] |= (value & SLOT_MASK) << (index % SLOTS_PER_LONG * SLOT_BITS);
+    }
+}
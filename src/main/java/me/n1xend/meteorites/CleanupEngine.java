@@ -0,0 +1,243 @@
+package me.n1xend.meteorites;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Движок очистки блоков метеоритов в три этапа:
+ * снимки чанков в основном потоке → поиск блоков метеорита по снимкам асинхронно →
+ * удаление в основном потоке порциями в пределах бюджета блоков и наносекунд на тик.
+ * Позиции — упакованные long'и {@link BlockLedger}.
+ */
+public class CleanupEngine {
+
+    /** Очистка одного метеорита с прогрессом и итогами. */
+    public static final class Job {
+        private final String id;
+        private final World world;
+        private final Set<Material> materials;
+        private final Consumer<Job> onComplete;
+        private final Set<Long> chunks = new HashSet<>();
+        private long[] removals = new long[0];
+        private int cursor;
+        private int checked;
+        private int removed;
+        private int deferred;
+        private long startedAt;
+
+        private Job(String id, World world, Set<Material> materials, Consumer<Job> onComplete) {
+            this.id = id;
+            this.world = world;
+            this.materials = materials;
+            this.onComplete = onComplete;
+        }
+
+        public String getId() { return id; }
+        /** Позиций проверено по снимкам. */
+        public int getChecked() { return checked; }
+        /** Найдено блоков метеорита к удалению. */
+        public int getMatched() { return removals.length; }
+        public int getRemoved() { return removed; }
+        /** Пропущено: чанк выгружен или блок уже заменён. */
+        public int getDeferred() { return deferred; }
+        public double getProgress() { return removals.length == 0 ? 1.0 : (double) cursor / removals.length; }
+        /** Ключи чанков, блоки которых были обработаны этой очисткой. */
+        public Set<Long> getChunks() { return chunks; }
+    }
+
+    private final CustomMeteorites plugin;
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private final List<Job> scanning = new ArrayList<>();
+    private BukkitTask task;
+
+    public CleanupEngine(CustomMeteorites plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Ставит очистку в очередь.
+     *
+     * @param positions   позиции-кандидаты (упакованы {@link BlockLedger#pack})
+     * @param loadChunks  грузить ли выгруженные чанки асинхронно; иначе их позиции пропускаются
+     */
+    public Job submit(String id, World world, long[] positions, Set<Material> materials,
+                      boolean loadChunks, Consumer<Job> onComplete) {
+        Job job = new Job(id, world, materials, onComplete);
+        job.startedAt = Bukkit.getCurrentTick();
+        scanning.add(job);
+
+        Map<Long, List<Long>> byChunk = new LinkedHashMap<>();
+        for (long packed : positions) {
+            long key = chunkKey(BlockLedger.unpackChunkX(packed), BlockLedger.unpackChunkZ(packed));
+            byChunk.computeIfAbsent(key, k -> new ArrayList<>()).add(packed);
+        }
+
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        List<CompletableFuture<ChunkSnapshot>> snapshots = new ArrayList<>();
+        List<List<Long>> groups = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> entry : byChunk.entrySet()) {
+            int cx = (int) (long) entry.getKey();
+            int cz = (int) (entry.getKey() >> 32);
+            CompletableFuture<ChunkSnapshot> snapshot;
+            if (world.isChunkLoaded(cx, cz)) {
+                snapshot = CompletableFuture.completedFuture(world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false));
+            } else if (loadChunks) {
+                // Paper завершает загрузку в основном потоке — снимок берётся там же
+                snapshot = world.getChunkAtAsync(cx, cz).thenApply(chunk -> chunk.getChunkSnapshot(false, false, false));
+            } else {
+                job.deferred += entry.getValue().size();
+                continue;
+            }
+            job.chunks.add(entry.getKey());
+            snapshots.add(snapshot.exceptionally(error -> null));
+            groups.add(entry.getValue());
+        }
+
+        CompletableFuture.allOf(snapshots.toArray(new CompletableFuture[0])).thenRun(() -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                long[] removals = scan(job, snapshots, groups, minY, maxY);
+                if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, () -> enqueue(job, removals));
+            });
+        });
+        return job;
+    }
+
+    // Асинхронный этап: только чтение снимков
+    private static long[] scan(Job job, List<CompletableFuture<ChunkSnapshot>> snapshots,
+                               List<List<Long>> groups, int minY, int maxY) {
+        long[] found = new long[16];
+        int count = 0;
+        int checked = 0;
+        int deferred = 0;
+        for (int i = 0; i < snapshots.size(); i++) {
+            ChunkSnapshot snapshot = snapshots.get(i).join();
+            List<Long> group = groups.get(i);
+            if (snapshot == null) {
+                deferred += group.size();
+                continue;
+            }
+            for (long packed : group) {
+                int y = BlockLedger.unpackY(packed);
+                if (y < minY || y >= maxY) continue;
+                checked++;
+                Material type = snapshot.getBlockType(BlockLedger.unpackX(packed) & 15, y, BlockLedger.unpackZ(packed) & 15);
+                if (!job.materials.contains(type)) continue;
+                if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                found[count++] = packed;
+            }
+        }
+        job.checked = checked;
+        job.deferred += deferred;
+        return Arrays.copyOf(found, count);
+    }
+
+    private void enqueue(Job job, long[] removals) {
+        scanning.remove(job);
+        job.removals = removals;
+        queue.addLast(job);
+        if (task == null) task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 0L, 1L);
+    }
+
+    private void tick() {
+        int budget = Math.max(1, plugin.getConfigManager().getCleanupMaxBlocks());
+        long deadline = System.nanoTime() + Math.max(0L, plugin.getConfigManager().getCleanupMaxNanos());
+
+        while (budget > 0 && !queue.isEmpty()) {
+            Job job = queue.peekFirst();
+            while (budget > 0 && job.cursor < job.removals.length) {
+                long packed = job.removals[job.cursor++];
+                budget--;
+                if (!job.world.isChunkLoaded(BlockLedger.unpackChunkX(packed), BlockLedger.unpackChunkZ(packed))) {
+                    job.deferred++;
+                    continue;
+                }
+                Block block = job.world.getBlockAt(BlockLedger.unpackX(packed), BlockLedger.unpackY(packed), BlockLedger.unpackZ(packed));
+                // Снимок мог устареть: перепроверяем перед удалением
+                if (job.materials.contains(block.getType())) {
+                    block.setType(Material.AIR);
+                    job.removed++;
+                } else {
+                    job.deferred++;
+                }
+                if ((budget & 15) == 0 && System.nanoTime() >= deadline) budget = 0;
+            }
+            if (job.cursor >= job.removals.length) {
+                queue.pollFirst();
+                complete(job);
+            }
+        }
+
+        if (queue.isEmpty()) stop();
+    }
+
+    private void complete(Job job) {
+        plugin.getLogger().info(plugin.getLangManager().getMessage(
+                "cleanup.engine_summary",
+                "id", job.id,
+                "removed", String.valueOf(job.removed),
+                "matched", String.valueOf(job.removals.length),
+                "checked", String.valueOf(job.checked),
+                "deferred", String.valueOf(job.deferred),
+                "ticks", String.valueOf(Bukkit.getCurrentTick() - job.startedAt)
+        ));
+        if (job.onComplete != null) job.onComplete.accept(job);
+    }
+
+    /** Все незавершённые очистки: ещё сканируются или ждут удаления. */
+    public List<Job> getActiveJobs() {
+        List<Job> jobs = new ArrayList<>(scanning);
+        jobs.addAll(queue);
+        return jobs;
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** Выключение: незавершённые очистки повторятся после рестарта из сохранённых данных. */
+    public void cancelAll() {
+        queue.clear();
+        scanning.clear();
+        stop();
+    }
+
+    // === ВСПОМОГАТЕЛЬНОЕ ===
+
+    public static Set<Material> resolveMaterials(Collection<String> names) {
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (String name : names) {
+            Material mat = Material.matchMaterial(name.toUpperCase(Locale.ROOT));
+            if (mat != null && mat.isBlock()) materials.add(mat);
+        }
+        return materials;
+    }
+
+    /** Позиции куба (или шара при {@code sphere}) радиуса {@code radius} вокруг точки. */
+    public static long[] region(int centerX, int centerY, int centerZ, int radius, boolean sphere) {
+        int side = radius * 2 + 1;
+        long[] positions = new long[side * side * side];
+        int count = 0;
+        for (int dx = -radius; dx <= radius; dx++)
+            for (int dy = -radius; dy <= radius; dy++)
+                for (int dz = -radius; dz <= radius; dz++) {
+                    if (sphere && dx * dx + dy * dy + dz * dz > radius * radius) continue;
+                    positions[count++] = BlockLedger.pack(centerX + dx, centerY + dy, centerZ + dz);
+                }
+        return Arrays.copyOf(positions, count);
+    }
+
+    public static long chunkKey(int x, int z) { return (x & 0xFFFFFFFFL) | ((long) z << 32); }
+}
@@ -0,0 +1,82 @@
+package me.n1xend.meteorites;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.PriorityQueue;
+
+/**
+ * Единый планировщик очистки: min-куча по времени истечения и одна повторяющаяся задача,
+ * которая снимает с вершины только наступившие записи. Заменяет отдельный
+ * runTaskLater на каждый метеорит и периодический полный обход.
+ */
+public class CleanupScheduler {
+
+    /** Запланированная очистка; равные сроки выполняются в порядке постановки. */
+    private static final class Handle implements Comparable<Handle> {
+        private final long dueAt;
+        private final long sequence;
+        private final Runnable action;
+
+        private Handle(long dueAt, long sequence, Runnable action) {
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Handle other) {
+            int byTime = Long.compare(dueAt, other.dueAt);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final CustomMeteorites plugin;
+    private final PriorityQueue<Handle> queue = new PriorityQueue<>();
+    private long sequence;
+    private BukkitTask task;
+
+    public CleanupScheduler(CustomMeteorites plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(long periodTicks) {
+        if (task != null) return;
+        long period = Math.max(1L, periodTicks);
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, period, period);
+    }
+
+    /** @param dueAt момент очистки, мс по {@link System#currentTimeMillis()} */
+    public void schedule(long dueAt, Runnable action) {
+        queue.add(new Handle(dueAt, sequence++, action));
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        Handle head;
+        while ((head = queue.peek()) != null && head.dueAt <= now) {
+            queue.poll();
+            try {
+                head.action.run();
+            } catch (Exception e) {
+                plugin.getLogger().warning(plugin.getLangManager().getMessage("error.cleanup_task") + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Время ближайшей очистки (мс) или {@code -1}, если очередь пуста. */
+    public long getNextDueAt() {
+        Handle head = queue.peek();
+        return head != null ? head.dueAt : -1L;
+    }
+
+    /** Число запланированных очисток. */
+    public int getQueueDepth() { return queue.size(); }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+    }
+}
@@ -2,7 +2,9 @@ package me.n1xend.meteorites;
 
 import me.n1xend.meteorites.commands.MeteorCommand;
 import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.MeteoriteType;
 import me.n1xend.meteorites.generator.MeteoriteGenerator;
+import me.n1xend.meteorites.listener.ChunkCleanupListener;
 import me.n1xend.meteorites.listener.MeteoriteBlockListener;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -31,14 +33,18 @@ public class CustomMeteorites extends JavaPlugin {
         langManager = new LangManager(this);
         langManager.loadLanguages();
 
-        configManager = new ConfigManager(this);
+        configManager = new ConfigManager(this, langManager);
         configManager.loadConfig();
 
         meteoriteManager = new MeteoriteManager(this);
-        meteoriteGenerator = new MeteoriteGenerator(this, configManager, langManager);
+        meteoriteGenerator = new MeteoriteGenerator(this, configManager, langManager, meteoriteManager);
 
         getServer().getPluginManager().registerEvents(
-                new MeteoriteBlockListener(this, meteoriteGenerator),
+                new MeteoriteBlockListener(meteoriteGenerator),
+                this
+        );
+        getServer().getPluginManager().registerEvents(
+                new ChunkCleanupListener(this, meteoriteManager.getChunkStore()),
                 this
         );
 
@@ -92,43 +98,14 @@ public class CustomMeteorites extends JavaPlugin {
     }
 
     private void spawnRandomMeteorite() {
-        var loc = meteoriteGenerator.findRandomSpawnLocation();
-        if (loc == null) return;
-
-        String meteorId = pickRandomMeteoriteId();
-        if (meteorId == null) {
+        MeteoriteType type = configManager.getSnapshot().pickRandomMeteorite(random);
+        if (type == null) {
             getLogger().warning(langManager.getMessage("error.no_meteorites_configured"));
             return;
         }
 
-        meteoriteGenerator.createMeteoriteAt(loc, meteorId);
-    }
-
-    private String pickRandomMeteoriteId() {
-        var section = configManager.getMeteoritesConfig();
-        if (section == null || section.getKeys(false).isEmpty()) return null;
-
-        List<String> ids = new ArrayList<>();
-        List<Integer> weights = new ArrayList<>();
-        int total = 0;
-
-        for (String key : section.getKeys(false)) {
-            int chance = section.getInt(key + ".chance", 1);
-            if (chance <= 0) continue;
-            ids.add(key);
-            weights.add(chance);
-            total += chance;
-        }
-
-        if (ids.isEmpty() || total <= 0) return null;
-
-        int roll = random.nextInt(total);
-        int sum = 0;
-        for (int i = 0; i < ids.size(); i++) {
-            sum += weights.get(i);
-            if (roll < sum) return ids.get(i);
-        }
-        return ids.get(0);
+        // Точка выбирается по оценке рельефа, чанки грузятся асинхронно, без фриза тика
+        meteoriteGenerator.createRandomMeteoriteAsync(type);
     }
 
     private int randomInt(int min, int max) {
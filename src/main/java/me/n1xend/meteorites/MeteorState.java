@@ -0,0 +1,23 @@
+package me.n1xend.meteorites;
+
+/**
+ * Стадии жизни метеорита в {@link MeteoriteManager}:
+ * SPAWNING → FALLING → LANDED → EXPIRING → CLEANED.
+ * На диск попадают только приземлившиеся (LANDED и EXPIRING).
+ */
+public enum MeteorState {
+    /** Блоки ещё спавнятся. */
+    SPAWNING,
+    /** Всё заспавнено, ждём удара. */
+    FALLING,
+    /** Удар обработан, ждём срока очистки. */
+    LANDED,
+    /** Блоки убирает движок очистки. */
+    EXPIRING,
+    /** Очищен и удалён из реестра. */
+    CLEANED;
+
+    public boolean isPersistent() {
+        return this == LANDED || this == EXPIRING;
+    }
+}
@@ -1,5 +1,7 @@
 package me.n1xend.meteorites;
 
+import me.n1xend.meteorites.generator.MeteoriteLayout.Geometry;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Placement;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
@@ -10,11 +12,25 @@ public class MeteoriteData implements ConfigurationSerializable {
     private final UUID uuid;
     private final String worldName;
     private final int x, y, z;
-    private final long createdAt;
+    // Момент удара: срок очистки отсчитывается от него
+    private long createdAt;
     private final long cleanupDelayMs;
     private final Set<String> meteoriteMaterials;
+    // 🔥 По геометрии, центру и маске заново выводятся блоки, поставленные при ударе
+    private final String typeId;
+    private final long seed;
+    private final Placement placement;
+    // Снята с типа при спавне; null у записей до маски — тогда геометрия берётся из конфига
+    private final Geometry geometry;
+    // Ячейки, поставленные при ударе (пропущенные из-за твёрдого рельефа не входят)
+    private volatile BitSet placed;
+    // Только то, что не выводится: приземлившиеся FallingBlock, сундук; пуст у записей старых версий
+    private final BlockLedger blocks;
+    private volatile MeteorState state;
 
-    public MeteoriteData(Location location, long cleanupDelayMs, Set<String> materials) {
+    /** Новый метеорит на старте спавна; {@code location} — точка ядра. */
+    public MeteoriteData(Location location, long cleanupDelayMs, Set<String> materials,
+                         String typeId, long seed, Placement placement, Geometry geometry) {
         this.uuid = UUID.randomUUID();
         this.worldName = location.getWorld().getName();
         this.x = location.getBlockX();
@@ -23,6 +39,43 @@ public class MeteoriteData implements ConfigurationSerializable {
         this.createdAt = System.currentTimeMillis();
         this.cleanupDelayMs = cleanupDelayMs;
         this.meteoriteMaterials = new HashSet<>(materials);
+        this.typeId = typeId;
+        this.seed = seed;
+        this.placement = placement;
+        this.geometry = geometry;
+        this.placed = new BitSet();
+        this.blocks = new BlockLedger();
+        this.state = MeteorState.SPAWNING;
+    }
+
+    /** Запись из бинарного снимка {@link MeteoriteSnapshot}. */
+    MeteoriteData(UUID uuid, String worldName, int x, int y, int z, long createdAt, long cleanupDelayMs,
+                  Set<String> materials, String typeId, long seed, Placement placement,
+                  Geometry geometry, BitSet placed, BlockLedger blocks) {
+        this.uuid = uuid;
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.createdAt = createdAt;
+        this.cleanupDelayMs = cleanupDelayMs;
+        this.meteoriteMaterials = materials;
+        this.typeId = typeId;
+        this.seed = seed;
+        this.placement = placement;
+        this.geometry = geometry;
+        this.placed = placed;
+        this.blocks = blocks;
+        this.state = MeteorState.LANDED;
+    }
+
+    /** Независимая копия для потока журнала: живая запись дальше меняется в основном потоке. */
+    MeteoriteData copy() {
+        BlockLedger ledger = new BlockLedger();
+        ledger.addAll(blocks);
+        return new MeteoriteData(uuid, worldName, x, y, z, createdAt, cleanupDelayMs,
+                new HashSet<>(meteoriteMaterials), typeId, seed, placement, geometry,
+                (BitSet) placed.clone(), ledger);
     }
 
     public MeteoriteData(Map<String, Object> map) {
@@ -37,6 +90,18 @@ public class MeteoriteData implements ConfigurationSerializable {
         @SuppressWarnings("unchecked")
         List<String> mats = (List<String>) map.get("materials");
         this.meteoriteMaterials = new HashSet<>(mats != null ? mats : Collections.emptyList());
+        this.typeId = (String) map.get("type");
+        Object rawSeed = map.get("seed");
+        this.seed = rawSeed instanceof Number number ? number.longValue() : 0L;
+        Object rawPlacement = map.get("placement");
+        this.placement = rawPlacement != null ? Placement.valueOf(rawPlacement.toString()) : Placement.NONE;
+        Object rawGeometry = map.get("geometry");
+        this.geometry = rawGeometry != null ? Geometry.decode(rawGeometry.toString()) : null;
+        Object rawPlaced = map.get("placed");
+        this.placed = rawPlaced != null ? BitSet.valueOf(Base64.getDecoder().decode(rawPlaced.toString())) : new BitSet();
+        this.blocks = BlockLedger.decode((String) map.get("blocks"));
+        // С диска читаются только приземлившиеся метеориты
+        this.state = MeteorState.LANDED;
     }
 
     @Override
@@ -50,11 +115,25 @@ public class MeteoriteData implements ConfigurationSerializable {
         map.put("createdAt", createdAt);
         map.put("cleanupDelayMs", cleanupDelayMs);
         map.put("materials", new ArrayList<>(meteoriteMaterials));
+        if (typeId != null) map.put("type", typeId);
+        map.put("seed", seed);
+        map.put("placement", placement.name());
+        if (geometry != null) map.put("geometry", geometry.encode());
+        map.put("placed", Base64.getEncoder().encodeToString(placed.toByteArray()));
+        map.put("blocks", blocks.encode());
         return map;
     }
 
     public UUID getUuid() { return uuid; }
 
+    public String getWorldName() { return worldName; }
+
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getZ() { return z; }
+
+    public long getCreatedAt() { return createdAt; }
+
     public Location getLocation(org.bukkit.Server server) {
         World world = server.getWorld(worldName);
         return world != null ? new Location(world, x + 0.5, y, z + 0.5) : null;
@@ -67,8 +146,40 @@ public class MeteoriteData implements ConfigurationSerializable {
 
     public boolean isExpired() { return getRemainingTime() <= 0; }
 
+    public long getExpiresAt() { return createdAt + cleanupDelayMs; }
+
+    public long getCleanupDelayMs() { return cleanupDelayMs; }
+
+    public MeteorState getState() { return state; }
+
+    void setState(MeteorState state) { this.state = state; }
+
+    /** Фиксирует момент удара — от него отсчитывается срок очистки. */
+    void markLanded(long now) {
+        this.createdAt = now;
+        this.state = MeteorState.LANDED;
+    }
+
     public Set<String> getMeteoriteMaterials() { return meteoriteMaterials; }
 
+    public BlockLedger getBlocks() { return blocks; }
+
+    /** @return id типа или {@code null} у записей старых версий */
+    public String getTypeId() { return typeId; }
+
+    public long getSeed() { return seed; }
+
+    public Placement getPlacement() { return placement; }
+
+    /** @return геометрия на момент спавна или {@code null} у записей старых версий */
+    public Geometry getGeometry() { return geometry; }
+
+    /** Маска поставленных ячеек {@link me.n1xend.meteorites.generator.MeteoriteLayout}; не изменять. */
+    public BitSet getPlaced() { return placed; }
+
+    /** Фиксирует, какие ячейки удар действительно поставил. */
+    void markPlaced(BitSet placed) { this.placed = placed; }
+
     // 🔧 ДОБАВЛЕН МЕТОД ДЛЯ УНИКАЛЬНОГО КЛЮЧА
     public String getUniqueKey() {
         return worldName + ":" + x + ":" + y + ":" + z;
@@ -0,0 +1,354 @@
+package me.n1xend.meteorites;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Журнал активных метеоритов с отложенной записью.
+ * Регистрации и удаления копятся в памяти, единственный фоновый поток дописывает их
+ * пачкой в {@code active_meteorites.journal} не чаще раза в {@code flush-interval} секунд.
+ * Сжатие атомарно (временный файл + rename) заменяет бинарный снимок {@code active_meteorites.dat}
+ * ({@link MeteoriteSnapshot}) и обнуляет журнал. При старте читается снимок, затем хвост журнала;
+ * YAML-снимок старых версий только импортируется и удаляется после первого сжатия.
+ */
+public class MeteoriteJournal {
+
+    private static final String REGISTER = "R";
+    private static final String REMOVE = "D";
+    private static final String BLOCKS = "B";
+    private static final String SEPARATOR = "\t";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final CustomMeteorites plugin;
+    private final File snapshotFile;
+    private final File snapshotTempFile;
+    private final File legacySnapshotFile;
+    private final File journalFile;
+
+    // Записи, ещё не сброшенные на диск; доступ — под собственным монитором
+    private final List<String> pending = new ArrayList<>();
+    // Записи до среза состояния для сжатия, стоящего в очереди; под монитором pending.
+    // Пока срез не свёрнут, flush не пишет в журнал — иначе сжатие удалит записи после среза
+    private List<String> cut;
+    private final AtomicLong writeFailures = new AtomicLong();
+    private volatile boolean dirty;
+    private ScheduledExecutorService writer;
+
+    public MeteoriteJournal(CustomMeteorites plugin) {
+        this.plugin = plugin;
+        this.snapshotFile = new File(plugin.getDataFolder(), "active_meteorites.dat");
+        this.snapshotTempFile = new File(plugin.getDataFolder(), "active_meteorites.dat.tmp");
+        this.legacySnapshotFile = new File(plugin.getDataFolder(), "active_meteorites.yml");
+        this.journalFile = new File(plugin.getDataFolder(), "active_meteorites.journal");
+    }
+
+    /** Запускает фоновый поток записи. */
+    public void start(long flushIntervalSeconds) {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomMeteorites-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1L, flushIntervalSeconds);
+        writer.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.SECONDS);
+    }
+
+    // === ЗАГРУЗКА ===
+
+    /** Снимок + хвост журнала, в порядке записи. */
+    public Map<UUID, MeteoriteData> load() {
+        Map<UUID, MeteoriteData> result = new LinkedHashMap<>();
+        loadSnapshot(result);
+        replay(journalFile, result);
+        // Непустой хвост журнала и импортированный YAML сворачиваются первым же сжатием
+        dirty = journalFile.exists() || legacySnapshotFile.exists();
+        return result;
+    }
+
+    private void loadSnapshot(Map<UUID, MeteoriteData> result) {
+        if (!snapshotFile.exists()) {
+            importLegacySnapshot(result);
+            return;
+        }
+        // Записи принимаются только после проверки контрольной суммы
+        Map<UUID, MeteoriteData> loaded = new LinkedHashMap<>();
+        try {
+            MeteoriteSnapshot.read(snapshotFile, data -> loaded.put(data.getUuid(), data));
+            result.putAll(loaded);
+        } catch (IOException e) {
+            plugin.getLogger().severe(plugin.getLangManager().getMessage("error.critical_loading") + ": " + e.getMessage());
+        }
+    }
+
+    private void importLegacySnapshot(Map<UUID, MeteoriteData> result) {
+        if (!legacySnapshotFile.exists()) return;
+        try {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(legacySnapshotFile);
+            for (Map<?, ?> rawMap : yaml.getMapList("meteorites")) {
+                try {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = (Map<String, Object>) rawMap;
+                    MeteoriteData data = new MeteoriteData(map);
+                    result.put(data.getUuid(), data);
+                } catch (Exception e) {
+                    plugin.getLogger().warning(plugin.getLangManager().getMessage("error.loading_meteorite") + ": " + e.getMessage());
+                }
+            }
+            plugin.getLogger().info(plugin.getLangManager().getMessage("cleanup.imported_yaml", "count", String.valueOf(result.size())));
+        } catch (Exception e) {
+            plugin.getLogger().severe(plugin.getLangManager().getMessage("error.critical_loading") + ": " + e.getMessage());
+        }
+    }
+
+    private void replay(File file, Map<UUID, MeteoriteData> result) {
+        if (!file.exists()) return;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try {
+                    String[] parts = line.split(SEPARATOR, -1);
+                    if (REMOVE.equals(parts[0])) {
+                        result.remove(UUID.fromString(parts[1]));
+                    } else if (REGISTER.equals(parts[0])) {
+                        MeteoriteData data = decode(parts);
+                        result.put(data.getUuid(), data);
+                    } else if (BLOCKS.equals(parts[0])) {
+                        MeteoriteData data = result.get(UUID.fromString(parts[1]));
+                        if (data != null) data.getBlocks().addAll(BlockLedger.decode(parts[2]));
+                    }
+                } catch (Exception e) {
+                    // Оборванная последняя строка после падения сервера — пропускаем
+                    plugin.getLogger().warning(plugin.getLangManager().getMessage("error.journal_record") + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe(plugin.getLangManager().getMessage("error.critical_loading") + ": " + e.getMessage());
+        }
+    }
+
+    // === ЗАПИСЬ ===
+    // Мутации приходят из основного потока; на диск они попадают только в потоке журнала
+
+    public void appendRegister(MeteoriteData data) {
+        enqueue(encode(data));
+    }
+
+    public void appendRemove(UUID uuid) {
+        enqueue(REMOVE + SEPARATOR + uuid);
+    }
+
+    /** Блоки, приземлившиеся уже после регистрации метеорита. */
+    public void appendBlocks(UUID uuid, BlockLedger blocks) {
+        enqueue(BLOCKS + SEPARATOR + uuid + SEPARATOR + blocks.encode());
+    }
+
+    private void enqueue(String record) {
+        synchronized (pending) { pending.add(record); }
+        dirty = true;
+    }
+
+    private List<String> drain() {
+        synchronized (pending) {
+            List<String> records = new ArrayList<>(pending);
+            pending.clear();
+            return records;
+        }
+    }
+
+    /** Дописывает накопленные записи одним вызовом; при ошибке они вернутся в очередь. */
+    private void flush() {
+        List<String> records;
+        synchronized (pending) {
+            if (cut != null) return;
+            records = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (records.isEmpty()) return;
+        if (!appendToJournal(records)) {
+            // Срез мог случиться во время записи: эти записи старше него
+            synchronized (pending) { (cut != null ? cut : pending).addAll(0, records); }
+        }
+    }
+
+    private boolean appendToJournal(List<String> records) {
+        if (records.isEmpty()) return true;
+        try {
+            Files.write(journalFile.toPath(), records, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            reportFailure("error.journal_write", e);
+            return false;
+        }
+    }
+
+    /** Есть ли изменения, ещё не свёрнутые в снимок. */
+    public boolean needsCompaction() {
+        return dirty;
+    }
+
+    // === СЖАТИЕ ===
+
+    /**
+     * Ставит сжатие в очередь потока журнала. Вызывается в основном потоке сразу после
+     * копирования состояния: копия покрывает все записи, накопленные к этому моменту.
+     * Эти записи отделяются срезом; более поздние остаются в очереди и попадут
+     * в журнал только после того, как сжатие удалит старый.
+     */
+    public void compact(Collection<MeteoriteData> meteorites) {
+        synchronized (pending) {
+            // Предыдущее сжатие ещё в очереди — это подождёт следующего раза
+            if (cut != null) return;
+            cut = new ArrayList<>(pending);
+            pending.clear();
+        }
+        dirty = false;
+        writer.execute(() -> {
+            List<String> records = takeCut();
+            if (records != null) compactNow(records, meteorites);
+        });
+    }
+
+    private List<String> takeCut() {
+        synchronized (pending) {
+            List<String> records = cut;
+            cut = null;
+            return records;
+        }
+    }
+
+    private void compactNow(List<String> records, Collection<MeteoriteData> meteorites) {
+        // Сначала журнал: если снимок не запишется, восстановление пройдёт по нему
+        boolean journaled = appendToJournal(records);
+        if (writeSnapshot(meteorites)) {
+            try {
+                Files.deleteIfExists(journalFile.toPath());
+                Files.deleteIfExists(legacySnapshotFile.toPath());
+            } catch (IOException e) {
+                reportFailure("error.compaction", e);
+            }
+        } else {
+            dirty = true;
+            if (!journaled) synchronized (pending) { pending.addAll(0, records); }
+        }
+    }
+
+    private boolean writeSnapshot(Collection<MeteoriteData> meteorites) {
+        List<MeteoriteData> live = new ArrayList<>();
+        for (MeteoriteData data : meteorites) {
+            if (!data.isExpired()) live.add(data);
+        }
+        try {
+            MeteoriteSnapshot.write(snapshotTempFile, live);
+            try {
+                Files.move(snapshotTempFile.toPath(), snapshotFile.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(snapshotTempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            reportFailure("error.compaction", e);
+            return false;
+        }
+    }
+
+    /**
+     * Синхронный сброс при выключении: дожидается фоновых записей
+     * и сворачивает итоговое состояние в снимок в текущем потоке.
+     */
+    public void shutdown(Collection<MeteoriteData> meteorites) {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) writer.shutdownNow();
+            } catch (InterruptedException e) {
+                writer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Срез несостоявшегося сжатия старше очереди
+        List<String> records = takeCut();
+        if (records == null) records = new ArrayList<>();
+        records.addAll(drain());
+        compactNow(records, meteorites);
+        dirty = false;
+    }
+
+    private void reportFailure(String key, IOException e) {
+        long failures = writeFailures.incrementAndGet();
+        plugin.getLogger().warning(plugin.getLangManager().getMessage(key)
+                + " (#" + failures + "): " + e.getMessage());
+    }
+
+    /** Число неудачных записей на диск с момента запуска. */
+    public long getWriteFailures() { return writeFailures.get(); }
+
+    // === ФОРМАТ ЗАПИСИ ===
+    // R <uuid> <world> <x> <y> <z> <createdAt> <cleanupDelayMs> <MAT,MAT,...> <blocks> <seed> <type> <placement>
+    //   <core,inner,outer,layers> <маска поставленных, Base64>
+    // D <uuid>
+    // B <uuid> <blocks>
+
+    private static String encode(MeteoriteData data) {
+        Map<String, Object> map = data.serialize();
+        @SuppressWarnings("unchecked")
+        List<String> materials = (List<String>) map.get("materials");
+        return String.join(SEPARATOR,
+                REGISTER,
+                String.valueOf(map.get("uuid")),
+                String.valueOf(map.get("world")),
+                String.valueOf(map.get("x")),
+                String.valueOf(map.get("y")),
+                String.valueOf(map.get("z")),
+                String.valueOf(map.get("createdAt")),
+                String.valueOf(map.get("cleanupDelayMs")),
+                String.join(",", materials),
+                String.valueOf(map.get("blocks")),
+                String.valueOf(map.get("seed")),
+                Objects.toString(map.get("type"), ""),
+                String.valueOf(map.get("placement")),
+                Objects.toString(map.get("geometry"), ""),
+                String.valueOf(map.get("placed")));
+    }
+
+    private static MeteoriteData decode(String[] parts) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("uuid", parts[1]);
+        map.put("world", parts[2]);
+        map.put("x", Integer.parseInt(parts[3]));
+        map.put("y", Integer.parseInt(parts[4]));
+        map.put("z", Integer.parseInt(parts[5]));
+        map.put("createdAt", Long.parseLong(parts[6]));
+        map.put("cleanupDelayMs", Long.parseLong(parts[7]));
+        map.put("materials", parts[8].isEmpty() ? List.of() : Arrays.asList(parts[8].split(",")));
+        if (parts.length > 9) map.put("blocks", parts[9]);
+        // Записи до сидов: без поставленных блоков, только журнал позиций
+        if (parts.length > 12) {
+            map.put("seed", Long.parseLong(parts[10]));
+            if (!parts[11].isEmpty()) map.put("type", parts[11]);
+            map.put("placement", parts[12]);
+        }
+        // Записи до маски: поставленные блоки выводятся по текущему типу
+        if (parts.length > 14) {
+            if (!parts[13].isEmpty()) map.put("geometry", parts[13]);
+            map.put("placed", parts[14]);
+        }
+        return new MeteoriteData(map);
+    }
+}
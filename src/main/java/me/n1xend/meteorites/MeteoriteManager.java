@@ -1,171 +1,359 @@
 package me.n1xend.meteorites;
 
+import me.n1xend.meteorites.config.MeteoriteType;
+import me.n1xend.meteorites.config.TreasureSettings;
+import me.n1xend.meteorites.generator.MeteoriteLayout;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Geometry;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Placement;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.World;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 
+/**
+ * Единый реестр жизненного цикла метеоритов ({@link MeteorState}).
+ * Генератор заводит метеорит при спавне и сообщает о блоках и ударе,
+ * а очистка идёт одним проходом — одинаково в живой сессии и после рестарта.
+ */
 public class MeteoriteManager {
     private final CustomMeteorites plugin;
-    private final File saveFile;
+    private final MeteoriteJournal journal;
+    private final ChunkMeteorStore chunkStore;
+    private final CleanupScheduler cleanupScheduler;
+    private final CleanupEngine cleanupEngine;
     private final Map<UUID, MeteoriteData> activeMeteorites = new HashMap<>();
-    private final Set<String> processingKeys = Collections.synchronizedSet(new HashSet<>());
+    // Опоздавшие блоки уже сохранённых метеоритов: в журнал и PDC — одной записью за тик
+    private final Map<UUID, BlockLedger> lateBlocks = new LinkedHashMap<>();
+    private BukkitTask lateBlocksFlush;
 
     public MeteoriteManager(CustomMeteorites plugin) {
         this.plugin = plugin;
-        this.saveFile = new File(plugin.getDataFolder(), "active_meteorites.yml");
+        this.journal = new MeteoriteJournal(plugin);
+        this.chunkStore = new ChunkMeteorStore(plugin);
+        this.cleanupScheduler = new CleanupScheduler(plugin);
+        this.cleanupEngine = new CleanupEngine(plugin);
         loadMeteorites();
-        startCleanupWatcher();
+        journal.start(plugin.getConfigManager().getJournalFlushInterval());
+        cleanupScheduler.start(plugin.getConfigManager().getCleanupCheckPeriod());
+        startCompaction();
+        // Чанки, загруженные до включения плагина, не получат ChunkLoadEvent
+        Bukkit.getScheduler().runTask(plugin, this::sweepLoadedChunks);
     }
 
+    private void sweepLoadedChunks() {
+        int cleaned = chunkStore.sweepLoaded(System.currentTimeMillis());
+        if (cleaned > 0) {
+            plugin.getLogger().info(plugin.getLangManager().getMessage("cleanup.chunk_sweep", "count", String.valueOf(cleaned)));
+        }
+    }
+
+    // Одна итоговая строка в лог вместо строки на каждый метеорит
     private void loadMeteorites() {
-        if (!saveFile.exists()) return;
-        try {
-            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(saveFile);
-            List<Map<?, ?>> list = yaml.getMapList("meteorites");
-            for (Map<?, ?> rawMap : list) {
-                try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> map = (Map<String, Object>) rawMap;
-                    MeteoriteData data = new MeteoriteData(map);
-                    if (data.isExpired()) {
-                        plugin.getLogger().info(plugin.getLangManager().getMessage("cleanup.skipped_expired"));
-                        continue;
-                    }
-                    activeMeteorites.put(data.getUuid(), data);
-                    scheduleCleanup(data);
-                    plugin.getLogger().info(plugin.getLangManager().getMessage(
-                            "cleanup.restored",
-                            "uuid", data.getUuid().toString().substring(0, 8),
-                            "location", data.getUniqueKey(),
-                            "minutes", String.valueOf(data.getRemainingTime() / 60000)
-                    ));
-                } catch (Exception e) {
-                    plugin.getLogger().warning(plugin.getLangManager().getMessage("error.loading_meteorite") + ": " + e.getMessage());
-                }
+        long started = System.nanoTime();
+        int expired = 0;
+        for (MeteoriteData data : journal.load().values()) {
+            if (data.isExpired()) {
+                // Блоки уберутся по записи в PDC чанка при его загрузке
+                expired++;
+                continue;
             }
-        } catch (Exception e) {
-            plugin.getLogger().severe(plugin.getLangManager().getMessage("error.critical_loading") + ": " + e.getMessage());
+            activeMeteorites.put(data.getUuid(), data);
+            scheduleCleanup(data);
         }
+        if (activeMeteorites.isEmpty() && expired == 0) return;
+        plugin.getLogger().info(plugin.getLangManager().getMessage(
+                "cleanup.restored",
+                "count", String.valueOf(activeMeteorites.size()),
+                "expired", String.valueOf(expired),
+                "ms", String.valueOf((System.nanoTime() - started) / 1_000_000)
+        ));
+    }
+
+    /**
+     * Сворачивает журнал в снимок: состояние копируется в основном потоке,
+     * а бинарный снимок пишет поток журнала. Без новых записей сжатие пропускается.
+     */
+    public void compact() {
+        if (!journal.needsCompaction()) return;
+        journal.compact(copyActive());
     }
 
-    public void saveMeteorites() {
-        YamlConfiguration yaml = new YamlConfiguration();
-        List<Map<String, Object>> list = new ArrayList<>();
+    // На диск — только приземлившиеся; летящие метеориты после рестарта не восстанавливаются.
+    // Поток журнала получает копии: реестр и маска живых записей меняются в основном потоке
+    private List<MeteoriteData> copyActive() {
+        List<MeteoriteData> copy = new ArrayList<>();
         synchronized (activeMeteorites) {
             for (MeteoriteData data : activeMeteorites.values()) {
-                if (!data.isExpired()) list.add(data.serialize());
+                if (data.getState().isPersistent()) copy.add(data.copy());
             }
         }
-        yaml.set("meteorites", list);
-        try { yaml.save(saveFile); } catch (IOException e) { /* ignore */ }
+        return copy;
+    }
+
+    private void startCompaction() {
+        long period = Math.max(20L, plugin.getConfigManager().getJournalCompactionInterval() * 20L);
+        new BukkitRunnable() {
+            @Override public void run() { compact(); }
+        }.runTaskTimer(plugin, period, period);
+    }
+
+    // === ЖИЗНЕННЫЙ ЦИКЛ ===
+
+    /**
+     * Заводит метеорит в момент спавна (SPAWNING). Срок очистки —
+     * {@code clean-up-meteorite-blocks-interval} типа в тиках; 0 — блоки не убираются.
+     *
+     * @param treasure  сокровища снимка, с которым летит метеорит: их контейнер тоже убирается
+     * @param seed      сид блоков, которые метеорит поставит сам ({@link MeteoriteLayout})
+     * @param placement какие слои ставятся при ударе
+     */
+    public MeteoriteData begin(Location core, MeteoriteType type, TreasureSettings treasure,
+                               long seed, Placement placement) {
+        long cleanupDelayMs = Math.max(0L, type.cleanupInterval()) * 50L;
+        MeteoriteData data = new MeteoriteData(core, cleanupDelayMs, cleanupMaterials(type.materials(), treasure),
+                type.id(), seed, placement, Geometry.of(type));
+        synchronized (activeMeteorites) { activeMeteorites.put(data.getUuid(), data); }
+        return data;
+    }
+
+    // Обе очистки (движок и PDC чанка) убирают только эти материалы — без контейнера сундук остался бы в мире
+    static Set<String> cleanupMaterials(Set<String> layers, TreasureSettings treasure) {
+        Material container = treasure.container();
+        if (container == null) return layers;
+        Set<String> materials = new HashSet<>(layers);
+        materials.add(container.name());
+        return materials;
+    }
+
+    public MeteoriteData get(UUID uuid) {
+        synchronized (activeMeteorites) { return activeMeteorites.get(uuid); }
+    }
+
+    /** Все блоки заспавнены, метеорит в полёте (FALLING). */
+    public void markFalling(UUID uuid) {
+        MeteoriteData data = get(uuid);
+        if (data != null && data.getState() == MeteorState.SPAWNING) data.setState(MeteorState.FALLING);
     }
 
-    public boolean registerMeteorite(Location center, long cleanupDelayTicks, Set<String> materials) {
-        String key = center.getWorld().getName() + ":" + center.getBlockX() + ":" + center.getBlockY() + ":" + center.getBlockZ();
-        synchronized (processingKeys) {
-            if (processingKeys.contains(key)) {
-                plugin.getLogger().warning(plugin.getLangManager().getMessage("error.duplicate_meteorite", "location", key));
-                return false;
+    /** Ячейки {@link MeteoriteLayout}, которые удар поставил; вызывается до {@link #land}. */
+    public void markPlaced(UUID uuid, BitSet placed) {
+        MeteoriteData data = get(uuid);
+        if (data != null) data.markPlaced(placed);
+    }
+
+    /** Блок метеорита, который нельзя вывести из сида: приземлившийся FallingBlock или сундук. */
+    public void recordBlock(UUID uuid, int x, int y, int z) {
+        MeteoriteData data = get(uuid);
+        if (data == null) return;
+
+        MeteorState state = data.getState();
+        if (state == MeteorState.SPAWNING || state == MeteorState.FALLING) {
+            data.getBlocks().add(x, y, z);
+            return;
+        }
+        if (state != MeteorState.LANDED) return;
+
+        // Опоздавший FallingBlock уже сохранённого метеорита: в памяти сразу, на диск — пачкой
+        data.getBlocks().add(x, y, z);
+        lateBlocks.computeIfAbsent(uuid, id -> new BlockLedger()).add(x, y, z);
+        if (lateBlocksFlush == null) lateBlocksFlush = Bukkit.getScheduler().runTask(plugin, this::flushLateBlocks);
+    }
+
+    /**
+     * Сохраняет накопленные опоздавшие блоки метеорита: одна запись журнала
+     * и одна запись PDC на каждый затронутый чанк.
+     */
+    public void flushBlocks(UUID uuid) {
+        BlockLedger added = lateBlocks.remove(uuid);
+        if (added == null) return;
+        MeteoriteData data = get(uuid);
+        // Метеорит уже убирается — его записи в PDC стираются вместе с блоками
+        if (data == null || data.getState() != MeteorState.LANDED) return;
+        journal.appendBlocks(uuid, added);
+        World world = Bukkit.getWorld(data.getWorldName());
+        if (world != null) chunkStore.write(world, uuid, data.getExpiresAt(), data.getMeteoriteMaterials(), added);
+    }
+
+    private void flushLateBlocks() {
+        lateBlocksFlush = null;
+        for (UUID uuid : new ArrayList<>(lateBlocks.keySet())) flushBlocks(uuid);
+    }
+
+    /** Удар обработан (LANDED): метеорит сохраняется и встаёт в очередь очистки. */
+    public void land(UUID uuid) {
+        MeteoriteData data = get(uuid);
+        if (data == null || data.getState().isPersistent()) return;
+
+        if (data.getCleanupDelayMs() <= 0) {
+            // Очистка не настроена — блоки остаются, хранить нечего
+            removeMeteorite(uuid);
+            return;
+        }
+
+        data.markLanded(System.currentTimeMillis());
+        journal.appendRegister(data);
+        World world = Bukkit.getWorld(data.getWorldName());
+        if (world != null) {
+            // В PDC чанков — полный список: выгруженный чанк чистится без конфига типа
+            BlockLedger all = allBlocks(data);
+            chunkStore.write(world, uuid, data.getExpiresAt(), data.getMeteoriteMaterials(), all != null ? all : data.getBlocks());
+        }
+        scheduleCleanup(data);
+        plugin.getLogger().info(plugin.getLangManager().getMessage(
+                "cleanup.registered",
+                "uuid", uuid.toString().substring(0, 8),
+                "location", data.getUniqueKey(),
+                "minutes", String.valueOf(data.getCleanupDelayMs() / 60000)
+        ));
+    }
+
+    /** Тип метеорита из текущего конфига или {@code null}, если тип удалён или запись старая. */
+    public MeteoriteType resolveType(MeteoriteData data) {
+        return data.getTypeId() != null ? plugin.getConfigManager().getSnapshot().getMeteorite(data.getTypeId()) : null;
+    }
+
+    /**
+     * Позиции блоков, поставленных при ударе: геометрия записи и маска поставленных ячеек,
+     * конфиг не читается. Записи до маски выводятся по текущему типу целиком, как раньше.
+     *
+     * @return {@code null}, если не вывести: у старой записи тип удалён из конфига
+     */
+    public long[] placedBlocks(MeteoriteData data) {
+        if (data.getPlacement() == Placement.NONE) return new long[0];
+        Geometry geometry = data.getGeometry();
+        BitSet placed = data.getPlaced();
+        if (geometry == null) {
+            MeteoriteType type = resolveType(data);
+            if (type == null) return null;
+            geometry = Geometry.of(type);
+            placed = new BitSet();
+            placed.set(0, geometry.shape().getBlockCount());
+        }
+        return MeteoriteLayout.positions(geometry, data.getPlacement(), placed, data.getX(), data.getY(), data.getZ());
+    }
+
+    /**
+     * Записанные блоки плюс выведенные из геометрии.
+     *
+     * @return {@code null}, если поставленные блоки не вывести: см. {@link #placedBlocks}
+     */
+    public BlockLedger allBlocks(MeteoriteData data) {
+        long[] placed = placedBlocks(data);
+        if (placed == null) return null;
+        BlockLedger all = new BlockLedger();
+        all.addAll(data.getBlocks());
+        for (long packed : placed) all.add(packed);
+        return all;
+    }
+
+    /** Ближайший метеорит в мире точки в пределах {@code maxDistance} блоков. */
+    public MeteoriteData nearest(Location location, double maxDistance) {
+        MeteoriteData best = null;
+        double bestSq = maxDistance * maxDistance;
+        synchronized (activeMeteorites) {
+            for (MeteoriteData data : activeMeteorites.values()) {
+                if (!data.getWorldName().equals(location.getWorld().getName())) continue;
+                double dx = data.getX() - location.getX(), dy = data.getY() - location.getY(), dz = data.getZ() - location.getZ();
+                double distSq = dx * dx + dy * dy + dz * dz;
+                if (distSq <= bestSq) {
+                    bestSq = distSq;
+                    best = data;
+                }
             }
-            processingKeys.add(key);
         }
-        try {
-            long cleanupDelayMs = cleanupDelayTicks * 50L;
-            MeteoriteData data = new MeteoriteData(center, cleanupDelayMs, materials);
-            synchronized (activeMeteorites) { activeMeteorites.put(data.getUuid(), data); }
-            scheduleCleanup(data);
-            saveMeteorites();
-            plugin.getLogger().info(plugin.getLangManager().getMessage(
-                    "cleanup.registered",
-                    "uuid", data.getUuid().toString().substring(0, 8),
-                    "location", key,
-                    "minutes", String.valueOf(cleanupDelayMs / 60000)
-            ));
-            return true;
-        } finally {
-            synchronized (processingKeys) { processingKeys.remove(key); }
+        return best;
+    }
+
+    public int count(MeteorState state) {
+        int count = 0;
+        synchronized (activeMeteorites) {
+            for (MeteoriteData data : activeMeteorites.values()) {
+                if (data.getState() == state) count++;
+            }
         }
+        return count;
     }
 
     private void scheduleCleanup(MeteoriteData data) {
-        long delayTicks = data.getRemainingTime() / 50;
-        new BukkitRunnable() {
-            @Override public void run() { cleanupMeteorite(data); }
-        }.runTaskLater(plugin, delayTicks);
+        cleanupScheduler.schedule(data.getExpiresAt(), () -> cleanupMeteorite(data));
     }
 
     private void cleanupMeteorite(MeteoriteData data) {
+        if (data.getState() != MeteorState.LANDED) return;
+        data.setState(MeteorState.EXPIRING);
         Location loc = data.getLocation(Bukkit.getServer());
         if (loc == null) {
             plugin.getLogger().warning(plugin.getLangManager().getMessage("error.world_not_found", "location", data.getUniqueKey()));
             removeMeteorite(data.getUuid());
             return;
         }
-        Set<Material> meteoriteBlocks = new HashSet<>();
-        for (String matName : data.getMeteoriteMaterials()) {
-            try { meteoriteBlocks.add(Material.valueOf(matName.toUpperCase())); } catch (Exception ignored) {}
-        }
+        Set<Material> meteoriteBlocks = CleanupEngine.resolveMaterials(data.getMeteoriteMaterials());
         if (meteoriteBlocks.isEmpty()) {
             plugin.getLogger().warning(plugin.getLangManager().getMessage("error.no_materials", "uuid", data.getUuid().toString().substring(0, 8)));
             removeMeteorite(data.getUuid());
             return;
         }
-        int radius = plugin.getConfigManager().getCleanupRadius();
-        int cleaned = 0;
-        for (int dx = -radius; dx <= radius; dx++)
-            for (int dy = -radius; dy <= radius; dy++)
-                for (int dz = -radius; dz <= radius; dz++) {
-                    Block block = loc.clone().add(dx, dy, dz).getBlock();
-                    if (meteoriteBlocks.contains(block.getType())) {
-                        block.setType(Material.AIR);
-                        cleaned++;
-                    }
-                }
-        plugin.getLogger().info(plugin.getLangManager().getMessage(
-                "cleanup.removed_blocks",
-                "count", String.valueOf(cleaned),
-                "uuid", data.getUuid().toString().substring(0, 8)
-        ));
-        removeMeteorite(data.getUuid());
+
+        World world = loc.getWorld();
+        String id = data.getUuid().toString().substring(0, 8);
+        BlockLedger blocks = allBlocks(data);
+        if (blocks == null || blocks.isEmpty()) {
+            // Старые записи без списка блоков или удалённый тип — прежний куб, чанки грузятся асинхронно
+            long[] region = CleanupEngine.region(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                    plugin.getConfigManager().getCleanupRadius(), false);
+            cleanupEngine.submit(id, world, region, meteoriteBlocks, true, job -> removeMeteorite(data.getUuid()));
+            return;
+        }
+
+        // Только загруженные чанки: выгруженные уберутся по записи в PDC чанка при загрузке
+        cleanupEngine.submit(id, world, blocks.toArray(), meteoriteBlocks, false, job -> {
+            for (long key : job.getChunks()) {
+                int cx = (int) key, cz = (int) (key >> 32);
+                if (world.isChunkLoaded(cx, cz)) chunkStore.forget(world.getChunkAt(cx, cz), data.getUuid());
+            }
+            removeMeteorite(data.getUuid());
+        });
     }
 
+    public ChunkMeteorStore getChunkStore() { return chunkStore; }
+
     private void removeMeteorite(UUID uuid) {
-        synchronized (activeMeteorites) { activeMeteorites.remove(uuid); }
-        saveMeteorites();
+        MeteoriteData removed;
+        synchronized (activeMeteorites) { removed = activeMeteorites.remove(uuid); }
+        if (removed == null) return;
+        boolean persisted = removed.getState().isPersistent();
+        removed.setState(MeteorState.CLEANED);
+        if (persisted) journal.appendRemove(uuid);
     }
 
-    private void startCleanupWatcher() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                List<UUID> toRemove = new ArrayList<>();
-                synchronized (activeMeteorites) {
-                    for (MeteoriteData data : activeMeteorites.values())
-                        if (data.isExpired()) toRemove.add(data.getUuid());
-                }
-                for (UUID uuid : toRemove) {
-                    MeteoriteData data = activeMeteorites.get(uuid);
-                    if (data != null) {
-                        Location loc = data.getLocation(Bukkit.getServer());
-                        if (loc != null) cleanupMeteorite(data);
-                    }
-                }
-                if (!toRemove.isEmpty()) {
-                    plugin.getLogger().info(plugin.getLangManager().getMessage(
-                            "cleanup.watcher_cleaned",
-                            "count", String.valueOf(toRemove.size())
-                    ));
-                }
+    public void shutdown() {
+        if (lateBlocksFlush != null) lateBlocksFlush.cancel();
+        flushLateBlocks();
+
+        // Метеорит, прерванный в полёте, сохраняется с уже поставленными блоками — их уберут после рестарта
+        List<UUID> inFlight = new ArrayList<>();
+        synchronized (activeMeteorites) {
+            for (MeteoriteData data : activeMeteorites.values()) {
+                if (!data.getState().isPersistent()) inFlight.add(data.getUuid());
             }
-        }.runTaskTimer(plugin, 1200, 1200);
+        }
+        for (UUID uuid : inFlight) {
+            MeteoriteData data = get(uuid);
+            if (data.getBlocks().isEmpty()) removeMeteorite(uuid);
+            else land(uuid);
+        }
+
+        cleanupScheduler.stop();
+        cleanupEngine.cancelAll();
+        journal.shutdown(copyActive());
     }
 
-    public void shutdown() { saveMeteorites(); }
+    public CleanupScheduler getCleanupScheduler() { return cleanupScheduler; }
+    public CleanupEngine getCleanupEngine() { return cleanupEngine; }
+
+    public long getWriteFailures() { return journal.getWriteFailures(); }
 }
\ No newline at end of file
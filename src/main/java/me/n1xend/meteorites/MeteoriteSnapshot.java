@@ -0,0 +1,175 @@
+package me.n1xend.meteorites;
+
+import me.n1xend.meteorites.generator.MeteoriteLayout.Geometry;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Placement;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Бинарный снимок активных метеоритов ({@code active_meteorites.dat}).
+ * <pre>
+ * int magic, int version
+ * таблица миров:      int n, n × UTF
+ * палитра материалов: int n, n × UTF
+ * таблица типов:      int n, n × UTF
+ * int записей, на запись:
+ *   long uuidMost, long uuidLeast, short мир, int x, int y, int z,
+ *   long createdAt, long cleanupDelayMs, short n, n × short материал,
+ *   long seed, short тип (0xFFFF — нет), byte {@link Placement},
+ *   boolean есть {@link Geometry}, [short core, short inner, short outer, byte layers],
+ *   int n, n байт маски поставленных ячеек ({@link BitSet#toByteArray()}),
+ *   int n, n байт {@link BlockLedger#toBytes()}
+ * long CRC32 всего, что выше
+ * </pre>
+ * Чтение потоковое: записи отдаются по одной, в отличие от YAML — без промежуточного дерева объектов.
+ */
+public final class MeteoriteSnapshot {
+
+    static final int MAGIC = 0x434D5350; // "CMSP"
+    static final int VERSION = 1;
+    private static final int NO_TYPE = 0xFFFF;
+
+    private MeteoriteSnapshot() {}
+
+    public static void write(File file, Collection<MeteoriteData> meteorites) throws IOException {
+        // Таблицы строятся заранее: в записях остаются только индексы
+        Map<String, Integer> worlds = new LinkedHashMap<>();
+        Map<String, Integer> palette = new LinkedHashMap<>();
+        Map<String, Integer> types = new LinkedHashMap<>();
+        for (MeteoriteData data : meteorites) {
+            worlds.putIfAbsent(data.getWorldName(), worlds.size());
+            if (data.getTypeId() != null) types.putIfAbsent(data.getTypeId(), types.size());
+            for (String material : data.getMeteoriteMaterials()) palette.putIfAbsent(material, palette.size());
+        }
+
+        CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeTable(out, worlds.keySet());
+            writeTable(out, palette.keySet());
+            writeTable(out, types.keySet());
+
+            out.writeInt(meteorites.size());
+            for (MeteoriteData data : meteorites) {
+                out.writeLong(data.getUuid().getMostSignificantBits());
+                out.writeLong(data.getUuid().getLeastSignificantBits());
+                out.writeShort(worlds.get(data.getWorldName()));
+                out.writeInt(data.getX());
+                out.writeInt(data.getY());
+                out.writeInt(data.getZ());
+                out.writeLong(data.getCreatedAt());
+                out.writeLong(data.getCleanupDelayMs());
+                Set<String> materials = data.getMeteoriteMaterials();
+                out.writeShort(materials.size());
+                for (String material : materials) out.writeShort(palette.get(material));
+                out.writeLong(data.getSeed());
+                out.writeShort(data.getTypeId() != null ? types.get(data.getTypeId()) : NO_TYPE);
+                out.writeByte(data.getPlacement().ordinal());
+                Geometry geometry = data.getGeometry();
+                out.writeBoolean(geometry != null);
+                if (geometry != null) {
+                    out.writeShort(geometry.coreSize());
+                    out.writeShort(geometry.innerSize());
+                    out.writeShort(geometry.outerSize());
+                    out.writeByte(geometry.layers());
+                }
+                byte[] placed = data.getPlaced().toByteArray();
+                out.writeInt(placed.length);
+                out.write(placed);
+                byte[] blocks = data.getBlocks().toBytes();
+                out.writeInt(blocks.length);
+                out.write(blocks);
+            }
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    /**
+     * Отдаёт записи снимка по мере чтения. Длины и индексы проверяются до аллокации:
+     * испорченный файл не приводит к огромным массивам или исключениям времени выполнения.
+     *
+     * @throws IOException файл повреждён: неверная сигнатура, версия, длина, индекс или контрольная сумма.
+     *                     Уже отданные записи в этом случае недостоверны.
+     */
+    public static void read(File file, Consumer<MeteoriteData> consumer) throws IOException {
+        // Ни одна длина в файле не может превышать его размер
+        long limit = file.length();
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(file)), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC) throw new IOException("not a meteorite snapshot");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("unsupported snapshot version " + version);
+            String[] worlds = readTable(in, limit);
+            String[] palette = readTable(in, limit);
+            String[] types = readTable(in, limit);
+
+            int count = length(in.readInt(), limit);
+            for (int i = 0; i < count; i++) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                String world = entry(worlds, in.readUnsignedShort());
+                int x = in.readInt();
+                int y = in.readInt();
+                int z = in.readInt();
+                long createdAt = in.readLong();
+                long cleanupDelayMs = in.readLong();
+                int materialCount = in.readUnsignedShort();
+                Set<String> materials = new HashSet<>(materialCount * 2);
+                for (int m = 0; m < materialCount; m++) materials.add(entry(palette, in.readUnsignedShort()));
+                long seed = in.readLong();
+                int typeIndex = in.readUnsignedShort();
+                String type = typeIndex != NO_TYPE ? entry(types, typeIndex) : null;
+                Placement placement = entry(Placement.values(), in.readUnsignedByte());
+                Geometry geometry = null;
+                if (in.readBoolean()) {
+                    geometry = new Geometry(in.readUnsignedShort(), in.readUnsignedShort(),
+                            in.readUnsignedShort(), in.readUnsignedByte());
+                }
+                byte[] mask = new byte[length(in.readInt(), limit)];
+                in.readFully(mask);
+                BitSet placed = BitSet.valueOf(mask);
+                byte[] blocks = new byte[length(in.readInt(), limit)];
+                in.readFully(blocks);
+                BlockLedger ledger;
+                try {
+                    ledger = BlockLedger.fromBytes(blocks);
+                } catch (RuntimeException e) {
+                    throw new IOException("corrupt block ledger", e);
+                }
+                consumer.accept(new MeteoriteData(uuid, world, x, y, z, createdAt, cleanupDelayMs,
+                        materials, type, seed, placement, geometry, placed, ledger));
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) throw new IOException("snapshot checksum mismatch");
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) out.writeUTF(value);
+    }
+
+    private static String[] readTable(DataInputStream in, long limit) throws IOException {
+        String[] values = new String[length(in.readInt(), limit)];
+        for (int i = 0; i < values.length; i++) values[i] = in.readUTF();
+        return values;
+    }
+
+    private static int length(int value, long limit) throws IOException {
+        if (value < 0 || value > limit) throw new IOException("corrupt length " + value);
+        return value;
+    }
+
+    private static <T> T entry(T[] table, int index) throws IOException {
+        if (index >= table.length) throw new IOException("corrupt table index " + index);
+        return table[index];
+    }
+}
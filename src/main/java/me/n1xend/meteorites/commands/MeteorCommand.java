@@ -1,17 +1,31 @@
 package me.n1xend.meteorites.commands;
 
+import me.n1xend.meteorites.BlockLedger;
+import me.n1xend.meteorites.CleanupEngine;
 import me.n1xend.meteorites.CustomMeteorites;
 import me.n1xend.meteorites.LangManager;
+import me.n1xend.meteorites.MeteorState;
+import me.n1xend.meteorites.MeteoriteData;
+import me.n1xend.meteorites.MeteoriteManager;
 import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.effects.EffectsGovernor;
+import me.n1xend.meteorites.effects.EffectsTicker;
 import me.n1xend.meteorites.generator.MeteoriteGenerator;
 import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Locale;
+import java.util.Set;
+
 public class MeteorCommand implements CommandExecutor {
 
+    private static final double INSPECT_RADIUS = 64.0;
+
     private final CustomMeteorites plugin;
     private final ConfigManager configManager;
     private final MeteoriteGenerator generator;
@@ -54,8 +68,7 @@ public class MeteorCommand implements CommandExecutor {
                     return true;
                 }
                 String id = args[1];
-                var meteoritesSection = configManager.getMeteoritesConfig();
-                if (meteoritesSection == null || meteoritesSection.getConfigurationSection(id) == null) {
+                if (configManager.getSnapshot().getMeteorite(id) == null) {
                     sender.sendMessage(langManager.getMessage("command.spawn.not_found", "id", id));
                     return true;
                 }
@@ -93,6 +106,16 @@ public class MeteorCommand implements CommandExecutor {
                 }
             }
 
+            case "inspect" -> {
+                if (!(sender instanceof Player p)) {
+                    sender.sendMessage(langManager.getMessage("command.players_only"));
+                    return true;
+                }
+                inspect(p);
+            }
+
+            case "stats" -> sendStats(sender);
+
             case "version" -> {
                 sender.sendMessage(langManager.getMessage("command.version.info",
                         "version", CustomMeteorites.VERSION));
@@ -107,6 +130,81 @@ public class MeteorCommand implements CommandExecutor {
         return true;
     }
 
+    // Поставленные при ударе блоки выводятся из геометрии и маски записи и сверяются с миром
+    private void inspect(Player player) {
+        MeteoriteManager manager = plugin.getMeteoriteManager();
+        MeteoriteData data = manager.nearest(player.getLocation(), INSPECT_RADIUS);
+        if (data == null) {
+            player.sendMessage(langManager.getMessage("command.inspect.none", "radius", String.valueOf((int) INSPECT_RADIUS)));
+            return;
+        }
+
+        player.sendMessage(langManager.getMessage("command.inspect.info",
+                "uuid", data.getUuid().toString().substring(0, 8),
+                "type", String.valueOf(data.getTypeId()),
+                "state", data.getState().name(),
+                "seed", Long.toHexString(data.getSeed()),
+                "minutes", String.valueOf(data.getRemainingTime() / 60000)));
+
+        long[] placed = manager.placedBlocks(data);
+        Set<Material> materials = CleanupEngine.resolveMaterials(data.getMeteoriteMaterials());
+        World world = player.getWorld();
+        int intact = 0;
+        if (placed != null) {
+            for (long packed : placed) {
+                int x = BlockLedger.unpackX(packed), y = BlockLedger.unpackY(packed), z = BlockLedger.unpackZ(packed);
+                if (world.isChunkLoaded(x >> 4, z >> 4) && materials.contains(world.getBlockAt(x, y, z).getType())) intact++;
+            }
+        }
+        player.sendMessage(langManager.getMessage("command.inspect.blocks",
+                "placement", data.getPlacement().name(),
+                "planned", String.valueOf(placed != null ? placed.length : 0),
+                "intact", String.valueOf(intact),
+                "recorded", String.valueOf(data.getBlocks().size())));
+    }
+
+    private void sendStats(CommandSender sender) {
+        EffectsTicker ticker = generator.getEffects().getTicker();
+        EffectsGovernor governor = ticker.getGovernor();
+        MeteoriteManager manager = plugin.getMeteoriteManager();
+
+        sender.sendMessage(langManager.getMessage("command.stats.header"));
+        sender.sendMessage(langManager.getMessage("command.stats.budget",
+                "mspt", String.format(Locale.ROOT, "%.1f", governor.getMspt()),
+                "scale", String.format(Locale.ROOT, "%.0f", governor.getScale() * 100),
+                "particles", String.valueOf(governor.getParticlesSentLastTick()),
+                "particle_budget", String.valueOf(governor.getParticleBudget()),
+                "sounds", String.valueOf(governor.getSoundsSentLastTick()),
+                "sound_budget", String.valueOf(governor.getSoundBudget())));
+        sender.sendMessage(langManager.getMessage("command.stats.dropped",
+                "particles", String.valueOf(governor.getDroppedParticles()),
+                "sounds", String.valueOf(governor.getDroppedSounds())));
+        sender.sendMessage(langManager.getMessage("command.stats.airborne",
+                "meteors", String.valueOf(ticker.getActiveMeteors()),
+                "entities", String.valueOf(ticker.getTrackedEntities()),
+                "displays", String.valueOf(generator.getDisplayEntities()),
+                "flights", String.valueOf(generator.getImpactTracker().getActiveFlights())));
+        sender.sendMessage(langManager.getMessage("command.stats.lifecycle",
+                "spawning", String.valueOf(manager.count(MeteorState.SPAWNING)),
+                "falling", String.valueOf(manager.count(MeteorState.FALLING)),
+                "landed", String.valueOf(manager.count(MeteorState.LANDED)),
+                "expiring", String.valueOf(manager.count(MeteorState.EXPIRING))));
+        sender.sendMessage(langManager.getMessage("command.stats.spawn",
+                "jobs", String.valueOf(generator.getSpawnPipeline().getQueuedJobs()),
+                "tickets", String.valueOf(generator.getChunkTickets().getTicketedChunks())));
+        sender.sendMessage(langManager.getMessage("command.stats.cleanup",
+                "queued", String.valueOf(manager.getCleanupScheduler().getQueueDepth()),
+                "next", formatNextCleanup(manager.getCleanupScheduler().getNextDueAt()),
+                "jobs", String.valueOf(manager.getCleanupEngine().getActiveJobs().size()),
+                "failures", String.valueOf(manager.getWriteFailures())));
+    }
+
+    // Секунды до ближайшей очистки; "-" при пустой очереди
+    private static String formatNextCleanup(long dueAt) {
+        if (dueAt < 0) return "-";
+        return String.valueOf(Math.max(0L, dueAt - System.currentTimeMillis()) / 1000L);
+    }
+
     private void sendHelp(CommandSender s) {
         s.sendMessage(langManager.getMessage("command.help.header"));
         s.sendMessage(langManager.getMessage("command.help.title"));
@@ -114,6 +212,8 @@ public class MeteorCommand implements CommandExecutor {
         s.sendMessage(langManager.getMessage("command.help.start"));
         s.sendMessage(langManager.getMessage("command.help.stop"));
         s.sendMessage(langManager.getMessage("command.help.reload"));
+        s.sendMessage(langManager.getMessage("command.help.inspect"));
+        s.sendMessage(langManager.getMessage("command.help.stats"));
         s.sendMessage(langManager.getMessage("command.help.version"));
         s.sendMessage(langManager.getMessage("command.help.footer"));
     }
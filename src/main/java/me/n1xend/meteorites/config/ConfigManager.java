@@ -1,5 +1,8 @@
 package me.n1xend.meteorites.config;
 
+import me.n1xend.meteorites.LangManager;
+import me.n1xend.meteorites.generator.MeteoriteShape;
+import me.n1xend.meteorites.generator.RenderMode;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -7,21 +10,34 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ConfigManager {
     private final JavaPlugin plugin;
+    private final LangManager langManager;
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
     private FileConfiguration config;
     private File configFile;
 
-    public ConfigManager(JavaPlugin plugin) { this.plugin = plugin; }
+    public ConfigManager(JavaPlugin plugin, LangManager langManager) {
+        this.plugin = plugin;
+        this.langManager = langManager;
+    }
 
     public void loadConfig() {
         configFile = new File(plugin.getDataFolder(), "config.yml");
         if (!configFile.exists()) plugin.saveResource("config.yml", false);
         config = YamlConfiguration.loadConfiguration(configFile);
+        // Новый снимок публикуется целиком — летящие метеориты держат старый
+        snapshot.set(ConfigSnapshot.compile(config, plugin.getLogger(), langManager));
     }
 
-    public void reload() { loadConfig(); }
+    public void reload() {
+        // Формы старых размеров больше не нужны — летящие метеориты держат свои ссылки
+        MeteoriteShape.clearCache();
+        loadConfig();
+    }
 
     public void saveConfig() {
         if (config == null || configFile == null) return;
@@ -31,6 +47,9 @@ public class ConfigManager {
 
     public FileConfiguration getRawConfig() { return config; }
 
+    /** Скомпилированные meteorites / explosions / guardians / particles / treasure / effects-lod / effects-budget. */
+    public ConfigSnapshot getSnapshot() { return snapshot.get(); }
+
     // === ГЛОБАЛЬНЫЕ НАСТРОЙКИ ===
     public boolean isRandomMeteoritesEnabled() { return config.getBoolean("settings.enable-random-meteorites", true); }
     public int getInterval() { return config.getInt("settings.random-meteorite-interval", 10800); }
@@ -41,29 +60,26 @@ public class ConfigManager {
     public int getMinSpawnZ() { return config.getInt("settings.spawn-area.min-z", -2500); }
     public int getSpawnHeight() { return config.getInt("settings.spawn-height", 150); }
     public int getCleanupRadius() { return config.getInt("settings.cleanup-radius", 8); }
-
-    // === МЕТЕОРИТЫ ===
-    public ConfigurationSection getMeteoritesConfig() { return config.getConfigurationSection("meteorites"); }
-
-    // === ВЗРЫВЫ ===
-    public ConfigurationSection getCoreSettings() { return config.getConfigurationSection("explosions.core"); }
-    public ConfigurationSection getInnerLayerSettings() { return config.getConfigurationSection("explosions.inner-layer"); }
-    public ConfigurationSection getOuterLayerSettings() { return config.getConfigurationSection("explosions.outer-layer"); }
-
-    // === ЧАСТИЦЫ ===
-    public boolean areParticlesEnabled() { return config.getBoolean("particles.enabled", true); }
-    public int getParticleInterval() { return config.getInt("particles.interval", 5); }
-    public ConfigurationSection getParticleEffects() { return config.getConfigurationSection("particles.effects"); }
-
-    // === СОКРОВИЩА ===
-    public boolean isTreasureEnabled() { return config.getBoolean("treasure.enabled", true); }
-    public String getTreasureType() { return config.getString("treasure.container-type", "CHEST"); }
-
-    public ConfigurationSection getTreasureContent() { return config.getConfigurationSection("treasure.items"); }
-
-    // === ОХРАННИКИ ===
-    public boolean isGuardianEnabled() { return config.getBoolean("guardians.enabled", true); }
-    public ConfigurationSection getPossibleGuardians() { return config.getConfigurationSection("guardians.types"); }
+    public int getCleanupCheckPeriod() { return config.getInt("settings.cleanup-check-period", 20); }
+    public int getCleanupMaxBlocks() { return config.getInt("settings.cleanup-engine.max-blocks-per-tick", 256); }
+    public long getCleanupMaxNanos() { return config.getLong("settings.cleanup-engine.max-nanos-per-tick", 1_000_000L); }
+    public boolean isSpawnPipelineEnabled() { return config.getBoolean("settings.spawn-pipeline.enabled", false); }
+    public int getSpawnPipelineMaxBlocks() { return config.getInt("settings.spawn-pipeline.max-blocks-per-tick", 64); }
+    public long getSpawnPipelineMaxNanos() { return config.getLong("settings.spawn-pipeline.max-nanos-per-tick", 2_000_000L); }
+    public int getImpactTimeoutTicks() { return config.getInt("settings.impact-timeout-ticks", 600); }
+    public RenderMode getRenderMode() { return RenderMode.parse(config.getString("settings.render-mode", "FALLING_BLOCKS")); }
+    public int getDisplayCellSize() { return config.getInt("settings.block-display.cell-size", 3); }
+    public int getSpawnCandidates() { return config.getInt("settings.spawn-selection.candidates", 8); }
+    public double getSpawnVarianceWeight() { return config.getDouble("settings.spawn-selection.weights.height-variance", 1.0); }
+    public double getSpawnFluidWeight() { return config.getDouble("settings.spawn-selection.weights.fluid", 40.0); }
+    public double getSpawnBiomeWeight() { return config.getDouble("settings.spawn-selection.weights.biome", 30.0); }
+    public double getSpawnBlacklistWeight() { return config.getDouble("settings.spawn-selection.weights.blacklisted-blocks", 60.0); }
+    public List<String> getSpawnBiomeBlacklist() { return config.getStringList("settings.spawn-selection.biome-blacklist"); }
+    public List<String> getSpawnBlockBlacklist() { return config.getStringList("settings.spawn-selection.block-blacklist"); }
+    public int getJournalFlushInterval() { return config.getInt("settings.persistence.flush-interval", 5); }
+    public int getJournalCompactionInterval() { return config.getInt("settings.persistence.compaction-interval", 300); }
+    public boolean areChunkTicketsEnabled() { return config.getBoolean("settings.chunk-tickets.enabled", true); }
+    public int getMaxTicketedChunks() { return config.getInt("settings.chunk-tickets.max-chunks", 64); }
 
     // === АТМОСФЕРА ===
     public ConfigurationSection getAtmosphereSettings() { return config.getConfigurationSection("atmosphere"); }
@@ -0,0 +1,99 @@
+package me.n1xend.meteorites.config;
+
+import me.n1xend.meteorites.LangManager;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Неизменяемый снимок конфигурации, собранный один раз при загрузке / перезагрузке.
+ * Горячие пути (спавн, удар, выбор случайного метеорита) читают только поля снимка.
+ */
+public record ConfigSnapshot(Map<String, MeteoriteType> meteorites,
+                             List<MeteoriteType> spawnPool,
+                             int totalChance,
+                             ExplosionSettings coreExplosion,
+                             ExplosionSettings innerExplosion,
+                             ExplosionSettings outerExplosion,
+                             boolean guardiansEnabled,
+                             List<GuardianType> guardians,
+                             ParticleSettings particles,
+                             TreasureSettings treasure,
+                             EffectsLodSettings effectsLod,
+                             EffectsBudgetSettings effectsBudget) {
+
+    public static ConfigSnapshot compile(FileConfiguration config, Logger logger, LangManager lang) {
+        // === МЕТЕОРИТЫ ===
+        Map<String, MeteoriteType> meteorites = new LinkedHashMap<>();
+        List<MeteoriteType> spawnPool = new ArrayList<>();
+        int totalChance = 0;
+        ConfigurationSection meteoritesSec = config.getConfigurationSection("meteorites");
+        if (meteoritesSec != null) {
+            for (String key : meteoritesSec.getKeys(false)) {
+                ConfigurationSection sec = meteoritesSec.getConfigurationSection(key);
+                if (sec == null) continue;
+                MeteoriteType type = MeteoriteType.compile(key, sec);
+                meteorites.put(key, type);
+                if (type.chance() > 0) {
+                    spawnPool.add(type);
+                    totalChance += type.chance();
+                }
+            }
+        }
+
+        // === ОХРАННИКИ ===
+        List<GuardianType> guardians = new ArrayList<>();
+        ConfigurationSection guardiansSec = config.getConfigurationSection("guardians.types");
+        if (guardiansSec != null) {
+            for (String key : guardiansSec.getKeys(false)) {
+                ConfigurationSection data = guardiansSec.getConfigurationSection(key);
+                if (data == null || !data.getBoolean("enabled", false)) continue;
+                GuardianType guardian = GuardianType.compile(key, data, logger, lang);
+                if (guardian != null) guardians.add(guardian);
+            }
+        }
+
+        return new ConfigSnapshot(
+                Collections.unmodifiableMap(meteorites),
+                List.copyOf(spawnPool),
+                totalChance,
+                ExplosionSettings.compile(config.getConfigurationSection("explosions.core")),
+                ExplosionSettings.compile(config.getConfigurationSection("explosions.inner-layer")),
+                ExplosionSettings.compile(config.getConfigurationSection("explosions.outer-layer")),
+                config.getBoolean("guardians.enabled", true),
+                List.copyOf(guardians),
+                ParticleSettings.compile(config.getConfigurationSection("particles")),
+                TreasureSettings.compile(config.getConfigurationSection("treasure")),
+                EffectsLodSettings.compile(config.getConfigurationSection("settings.effects-lod")),
+                EffectsBudgetSettings.compile(config.getConfigurationSection("settings.effects-budget"))
+        );
+    }
+
+    public MeteoriteType getMeteorite(String id) {
+        return id == null ? null : meteorites.get(id);
+    }
+
+    /**
+     * Взвешенный выбор по {@code chance} без аллокаций.
+     *
+     * @return тип метеорита или {@code null}, если ни один не настроен
+     */
+    public MeteoriteType pickRandomMeteorite(Random random) {
+        if (spawnPool.isEmpty() || totalChance <= 0) return null;
+
+        int roll = random.nextInt(totalChance);
+        int sum = 0;
+        for (MeteoriteType type : spawnPool) {
+            sum += type.chance();
+            if (roll < sum) return type;
+        }
+        return spawnPool.get(0);
+    }
+}
@@ -0,0 +1,27 @@
+package me.n1xend.meteorites.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Скомпилированная секция {@code settings.effects-budget}: потолки пакетов на тик и пороги MSPT.
+ * Значения уже приведены к допустимым: потолки не меньше нуля, {@code msptHard >= msptSoft},
+ * {@code minScale} в пределах {@code 0..1}.
+ */
+public record EffectsBudgetSettings(int maxParticles, int maxSounds,
+                                    double msptSoft, double msptHard, double minScale) {
+
+    public static EffectsBudgetSettings compile(ConfigurationSection sec) {
+        int maxParticles = sec != null ? sec.getInt("max-particle-packets-per-tick", 1500) : 1500;
+        int maxSounds = sec != null ? sec.getInt("max-sounds-per-tick", 40) : 40;
+        double soft = sec != null ? sec.getDouble("mspt-soft", 40.0) : 40.0;
+        double hard = sec != null ? sec.getDouble("mspt-hard", 50.0) : 50.0;
+        double minScale = sec != null ? sec.getDouble("min-scale", 0.1) : 0.1;
+        return new EffectsBudgetSettings(
+                Math.max(0, maxParticles),
+                Math.max(0, maxSounds),
+                soft,
+                Math.max(soft, hard),
+                Math.max(0.0, Math.min(1.0, minScale))
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package me.n1xend.meteorites.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Скомпилированная секция {@code settings.effects-lod}: радиус зрителей и границы уровней детализации.
+ * Квадраты расстояний считаются один раз при загрузке — тикер эффектов сравнивает с ними каждый тик.
+ * <p>
+ * Частицы шлются без {@code force}: клиент отбрасывает такие дальше {@value #PARTICLE_RANGE} блоков,
+ * поэтому радиус и границы уровней зажимаются в этот предел — пакеты дальним игрокам были бы впустую.
+ */
+public record EffectsLodSettings(double viewRadius, double nearDistance, double midDistance,
+                                 double viewRadiusSq, double nearSq, double midSq) {
+
+    /** Дальность частиц без {@code force} — та же, что у {@code World.spawnParticle}. */
+    public static final double PARTICLE_RANGE = 32.0;
+
+    public static EffectsLodSettings compile(ConfigurationSection sec) {
+        double viewRadius = clamp(sec != null ? sec.getDouble("view-radius", PARTICLE_RANGE) : PARTICLE_RANGE, PARTICLE_RANGE);
+        double near = clamp(sec != null ? sec.getDouble("near-distance", 16.0) : 16.0, viewRadius);
+        double mid = clamp(sec != null ? sec.getDouble("mid-distance", 24.0) : 24.0, viewRadius);
+        return new EffectsLodSettings(viewRadius, near, mid, viewRadius * viewRadius, near * near, mid * mid);
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0.0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,27 @@
+package me.n1xend.meteorites.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Скомпилированные настройки взрыва одного слоя ({@code explosions.core / inner-layer / outer-layer}).
+ */
+public record ExplosionSettings(boolean explosionEnabled,
+                                float power,
+                                boolean breakBlocks,
+                                boolean setFire,
+                                boolean lightningStrike) {
+
+    /**
+     * @return настройки слоя или {@code null}, если секция отсутствует
+     */
+    public static ExplosionSettings compile(ConfigurationSection sec) {
+        if (sec == null) return null;
+        return new ExplosionSettings(
+                sec.getBoolean("enable-explosion", false),
+                (float) sec.getDouble("explosion-power", 1.0),
+                sec.getBoolean("explosion-breaks-blocks", true),
+                sec.getBoolean("explosion-sets-fire", false),
+                sec.getBoolean("enable-lighting-strike", true)
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package me.n1xend.meteorites.config;
+
+import me.n1xend.meteorites.LangManager;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.Sound;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+
+import java.util.logging.Logger;
+
+/**
+ * Скомпилированный охранник из {@code guardians.types.<id>}.
+ * Тип моба, звук и экипировка разрешаются один раз при загрузке конфига.
+ */
+public record GuardianType(String id,
+                           int chance,
+                           EntityType mobType,
+                           String displayName,
+                           double health,
+                           double attackDamage,
+                           double movementSpeed,
+                           boolean equipmentEnabled,
+                           Material mainHand,
+                           Material offHand,
+                           Material helmet,
+                           Material chestplate,
+                           Material leggings,
+                           Material boots,
+                           String playerMessage,
+                           Sound spawnSound,
+                           float soundVolume,
+                           float soundPitch) {
+
+    /**
+     * @return охранник или {@code null}, если тип моба невалиден
+     */
+    public static GuardianType compile(String id, ConfigurationSection data, Logger logger, LangManager lang) {
+        EntityType type;
+        try {
+            type = EntityType.valueOf(data.getString("guardian-mob-type", "ZOMBIE").trim().toUpperCase());
+        } catch (Exception e) {
+            logger.warning(lang.getMessage("error.invalid_mob_type", "type", data.getString("guardian-mob-type")));
+            return null;
+        }
+        if (!type.isAlive()) return null;
+
+        Sound sound = null;
+        String soundName = data.getString("guardian-spawn-sound");
+        if (soundName != null && !soundName.trim().isEmpty()) {
+            try {
+                sound = Sound.valueOf(soundName.trim().toUpperCase());
+            } catch (Exception e) {
+                logger.warning(lang.getMessage("error.invalid_sound", "sound", soundName));
+            }
+        }
+
+        boolean equipmentEnabled = data.getBoolean("enable-guardian-equipment", false);
+        ConfigurationSection equipSec = equipmentEnabled ? data.getConfigurationSection("guardian-equipment") : null;
+
+        return new GuardianType(
+                id,
+                data.getInt("chance", 10),
+                type,
+                ChatColor.translateAlternateColorCodes('&', data.getString("guardian-display-name", "Охранник")),
+                data.getDouble("guardian-health", 20.0),
+                data.getDouble("guardian-attack-damage", 5.0),
+                data.getDouble("guardian-movement-speed", 0.25),
+                equipSec != null,
+                equipment(equipSec, "main-hand"),
+                equipment(equipSec, "off-hand"),
+                equipment(equipSec, "helmet"),
+                equipment(equipSec, "chestplate"),
+                equipment(equipSec, "leggings"),
+                equipment(equipSec, "boots"),
+                data.getString("player-message"),
+                sound,
+                (float) data.getDouble("guardian-spawn-sound-volume", 1.0),
+                (float) data.getDouble("guardian-spawn-sound-pitch", 1.0)
+        );
+    }
+
+    private static Material equipment(ConfigurationSection equipSec, String slot) {
+        if (equipSec == null) return null;
+        String materialName = equipSec.getString(slot);
+        if (materialName == null || materialName.trim().isEmpty()) return null;
+        return Material.matchMaterial(materialName.trim().toUpperCase());
+    }
+}
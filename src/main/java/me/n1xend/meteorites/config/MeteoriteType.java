@@ -0,0 +1,60 @@
+package me.n1xend.meteorites.config;
+
+import me.n1xend.meteorites.generator.BlockSampler;
+import me.n1xend.meteorites.generator.MeteoriteShape;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Скомпилированный тип метеорита из {@code meteorites.<id>}.
+ * Неизменяем: летящий метеорит держит ссылку на свой тип и не замечает /meteor reload.
+ */
+public record MeteoriteType(String id,
+                            int chance,
+                            int cleanupInterval,
+                            double speed,
+                            boolean innerLayerEnabled,
+                            int outerSize,
+                            String chatMessage,
+                            List<String> spawnCommands,
+                            MeteoriteShape shape,
+                            BlockSampler coreBlocks,
+                            BlockSampler innerBlocks,
+                            BlockSampler outerBlocks,
+                            Set<String> materials) {
+
+    public static MeteoriteType compile(String id, ConfigurationSection sec) {
+        int outerSize = sec.getInt("outer-layer-size", 3);
+        boolean innerEnabled = sec.getBoolean("enable-inner-layer", false);
+        int innerSize = innerEnabled ? sec.getInt("inner-layer-size", 2) : 0;
+
+        ConfigurationSection coreSec = sec.getConfigurationSection("core-block");
+        ConfigurationSection innerSec = sec.getConfigurationSection("inner-layer-blocks");
+        ConfigurationSection outerSec = sec.getConfigurationSection("outer-layer-blocks");
+
+        // Все материалы метеорита — для персистентной очистки
+        Set<String> materials = new HashSet<>();
+        if (coreSec != null) materials.addAll(coreSec.getKeys(false));
+        if (innerSec != null) materials.addAll(innerSec.getKeys(false));
+        if (outerSec != null) materials.addAll(outerSec.getKeys(false));
+
+        return new MeteoriteType(
+                id,
+                sec.getInt("chance", 1),
+                sec.getInt("clean-up-meteorite-blocks-interval", 0),
+                sec.getDouble("meteorite-speed", 2.0),
+                innerEnabled,
+                outerSize,
+                sec.getString("chat-message"),
+                List.copyOf(sec.getStringList("meteorite-spawn-commands")),
+                MeteoriteShape.of(1, innerSize, outerSize),
+                BlockSampler.compile(coreSec),
+                BlockSampler.compile(innerSec),
+                BlockSampler.compile(outerSec),
+                Set.copyOf(materials)
+        );
+    }
+}
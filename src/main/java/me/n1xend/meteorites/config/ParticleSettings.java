@@ -0,0 +1,104 @@
+package me.n1xend.meteorites.config;
+
+import org.bukkit.Particle;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Скомпилированная секция {@code particles}: имена частиц разрешены заранее,
+ * а выбор эффекта сведён к таблице накопленных вероятностей.
+ * Таблица — единственный источник эффектов и наружу не отдаётся: снимок неизменяем.
+ */
+public final class ParticleSettings {
+
+    /**
+     * Эффект {@code particles.effects.<id>}. {@code particle == null} — имя в конфиге невалидно.
+     */
+    public record Effect(boolean enabled, int chance, Particle particle, int amount, double spread, double speed) { }
+
+    private final boolean enabled;
+    private final int interval;
+    // Только эффекты, которые могут сработать (включены, частица валидна, шанс > 0)
+    private final Effect[] table;
+    // Накопленная вероятность для table: прежний выбор случайного эффекта и бросок его chance слиты в одну величину
+    private final double[] cumulative;
+
+    private ParticleSettings(boolean enabled, int interval, Effect[] table, double[] cumulative) {
+        this.enabled = enabled;
+        this.interval = interval;
+        this.table = table;
+        this.cumulative = cumulative;
+    }
+
+    public static ParticleSettings compile(ConfigurationSection sec) {
+        if (sec == null) return new ParticleSettings(true, 5, new Effect[0], new double[0]);
+
+        List<Effect> effects = new ArrayList<>();
+        ConfigurationSection effectsSec = sec.getConfigurationSection("effects");
+        if (effectsSec != null) {
+            for (String key : effectsSec.getKeys(false)) {
+                ConfigurationSection effect = effectsSec.getConfigurationSection(key);
+                if (effect == null) continue;
+                effects.add(new Effect(
+                        effect.getBoolean("enabled", true),
+                        effect.getInt("chance", 100),
+                        resolveParticle(effect.getString("particle-effect", "FLAME")),
+                        Math.max(0, effect.getInt("amount", 1)),
+                        effect.getDouble("spread", 0.1),
+                        effect.getDouble("speed", 0.05)
+                ));
+            }
+        }
+
+        // P(эффект) = 1/N (равновероятный выбор среди всех N) × chance/100
+        List<Effect> emitting = new ArrayList<>();
+        List<Double> cumulative = new ArrayList<>();
+        double total = 0;
+        for (Effect effect : effects) {
+            if (!effect.enabled() || effect.particle() == null || effect.chance() <= 0) continue;
+            total += Math.min(100, effect.chance()) / 100.0 / effects.size();
+            cumulative.add(total);
+            emitting.add(effect);
+        }
+
+        double[] bounds = new double[cumulative.size()];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = cumulative.get(i);
+        return new ParticleSettings(
+                sec.getBoolean("enabled", true),
+                sec.getInt("interval", 5),
+                emitting.toArray(new Effect[0]),
+                bounds
+        );
+    }
+
+    public int interval() { return interval; }
+
+    /** Может ли секция вообще дать частицы. */
+    public boolean emits() {
+        return enabled && table.length > 0;
+    }
+
+    /**
+     * Один бросок общего {@link ThreadLocalRandom} без аллокаций.
+     *
+     * @return эффект или {@code null} — в этот раз частиц нет
+     */
+    public Effect pick() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) return table[i];
+        }
+        return null;
+    }
+
+    private static Particle resolveParticle(String name) {
+        try {
+            return Particle.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException ignored) {
+            return null;
+        }
+    }
+}
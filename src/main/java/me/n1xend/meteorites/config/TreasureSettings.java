@@ -0,0 +1,122 @@
+package me.n1xend.meteorites.config;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.enchantments.Enchantment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Скомпилированная секция {@code treasure}: контейнер и таблица лута.
+ */
+public record TreasureSettings(boolean enabled, Material containerType, List<Item> items) {
+
+    /**
+     * Предмет {@code treasure.items.<id>} с разобранным диапазоном количества и зачарованиями.
+     */
+    public record Item(Material material,
+                       int minAmount,
+                       int maxAmount,
+                       double chance,
+                       String rarity,
+                       String displayName,
+                       List<String> lore,
+                       boolean unbreakable,
+                       Map<Enchantment, Integer> enchants) { }
+
+    /** Контейнер сокровищ в ядре или {@code null}, если он не ставится. */
+    public Material container() {
+        if (!enabled) return null;
+        return containerType == Material.CHEST || containerType == Material.BARREL ? containerType : null;
+    }
+
+    public static TreasureSettings compile(ConfigurationSection sec) {
+        if (sec == null) return new TreasureSettings(true, Material.CHEST, List.of());
+
+        List<Item> items = new ArrayList<>();
+        ConfigurationSection itemsSec = sec.getConfigurationSection("items");
+        if (itemsSec != null) {
+            for (String key : itemsSec.getKeys(false)) {
+                ConfigurationSection entry = itemsSec.getConfigurationSection(key);
+                if (entry == null || !entry.getBoolean("enabled", true)) continue;
+                Item item = compileItem(entry);
+                if (item != null) items.add(item);
+            }
+        }
+
+        return new TreasureSettings(
+                sec.getBoolean("enabled", true),
+                Material.matchMaterial(sec.getString("container-type", "CHEST")),
+                List.copyOf(items)
+        );
+    }
+
+    private static Item compileItem(ConfigurationSection entry) {
+        String materialName = entry.getString("item-type");
+        if (materialName == null) return null;
+        Material mat = Material.matchMaterial(materialName.toUpperCase());
+        if (mat == null) return null;
+
+        // Поддержка диапазона количества, например: "4-12"
+        int min = 1;
+        int max = 1;
+        String amountStr = entry.getString("amount", "1");
+        if (amountStr.contains("-")) {
+            String[] parts = amountStr.split("-", 2);
+            try {
+                min = Integer.parseInt(parts[0].trim());
+                max = Math.max(min, Integer.parseInt(parts[1].trim()));
+            } catch (NumberFormatException ignored) {
+                min = max = 1;
+            }
+        } else {
+            try {
+                min = max = Integer.parseInt(amountStr.trim());
+            } catch (NumberFormatException ignored) {
+                min = max = 1;
+            }
+        }
+
+        String displayName = entry.getString("display-name");
+        if (displayName != null && !displayName.trim().isEmpty()) {
+            displayName = ChatColor.translateAlternateColorCodes('&', displayName);
+        } else {
+            displayName = null;
+        }
+
+        List<String> lore = new ArrayList<>();
+        for (String line : entry.getStringList("lore")) {
+            lore.add(ChatColor.translateAlternateColorCodes('&', line));
+        }
+
+        Map<Enchantment, Integer> enchants = new LinkedHashMap<>();
+        ConfigurationSection enchantsSec = entry.getConfigurationSection("enchants");
+        if (enchantsSec != null) {
+            for (String enchantKey : enchantsSec.getKeys(false)) {
+                Enchantment ench = Enchantment.getByName(enchantKey.toUpperCase());
+                if (ench == null) continue;
+                int level = enchantsSec.getInt(enchantKey, 1);
+                if (level <= 0) continue;
+                enchants.put(ench, level);
+            }
+        }
+
+        return new Item(
+                mat,
+                min,
+                max,
+                entry.getDouble("chance", 100.0),
+                entry.getString("rarity", "common").toLowerCase(Locale.ROOT),
+                displayName,
+                List.copyOf(lore),
+                entry.getBoolean("unbreakable", false),
+                Collections.unmodifiableMap(enchants)
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package me.n1xend.meteorites.effects;
+
+import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.EffectsBudgetSettings;
+import org.bukkit.Bukkit;
+
+/**
+ * Общий бюджет эффектов на тик: пакеты частиц и звуки. Бюджет сжимается, когда средний
+ * MSPT сервера выходит за {@code settings.effects-budget.mspt-soft}, и доходит до
+ * {@code min-scale} на {@code mspt-hard}. Внутри тика каждый метеорит получает равную долю
+ * остатка, так что один крупный метеорит не оставляет остальных без следа.
+ */
+public final class EffectsGovernor {
+
+    private final ConfigManager config;
+
+    private double mspt;
+    private double scale = 1.0;
+    private int particleBudget;
+    private int soundBudget;
+    private int particlesLeft;
+    private int soundsLeft;
+    private int meteorParticlesLeft;
+    private int meteorSoundsLeft;
+
+    private int particlesSentLastTick;
+    private int soundsSentLastTick;
+    private long droppedParticles;
+    private long droppedSounds;
+
+    EffectsGovernor(ConfigManager config) {
+        this.config = config;
+    }
+
+    /** Пересчитывает бюджет по текущему MSPT; вызывается в начале тика эффектов. */
+    void beginTick() {
+        particlesSentLastTick = particleBudget - particlesLeft;
+        soundsSentLastTick = soundBudget - soundsLeft;
+
+        mspt = Bukkit.getServer().getAverageTickTime();
+        EffectsBudgetSettings budget = config.getSnapshot().effectsBudget();
+        double soft = budget.msptSoft();
+        double hard = budget.msptHard();
+        if (mspt <= soft) {
+            scale = 1.0;
+        } else if (mspt >= hard) {
+            scale = budget.minScale();
+        } else {
+            scale = 1.0 - (1.0 - budget.minScale()) * (mspt - soft) / (hard - soft);
+        }
+
+        particleBudget = (int) (budget.maxParticles() * scale);
+        soundBudget = (int) (budget.maxSounds() * scale);
+        particlesLeft = particleBudget;
+        soundsLeft = soundBudget;
+    }
+
+    /** Доля остатка для очередного метеорита; {@code meteorsLeft} — включая его самого. */
+    void beginMeteor(int meteorsLeft) {
+        int share = Math.max(1, meteorsLeft);
+        meteorParticlesLeft = (particlesLeft + share - 1) / share;
+        meteorSoundsLeft = (soundsLeft + share - 1) / share;
+    }
+
+    boolean takeParticle() {
+        if (meteorParticlesLeft <= 0 || particlesLeft <= 0) {
+            droppedParticles++;
+            return false;
+        }
+        meteorParticlesLeft--;
+        particlesLeft--;
+        return true;
+    }
+
+    boolean takeSound() {
+        if (meteorSoundsLeft <= 0 || soundsLeft <= 0) {
+            droppedSounds++;
+            return false;
+        }
+        meteorSoundsLeft--;
+        soundsLeft--;
+        return true;
+    }
+
+    public double getMspt() { return mspt; }
+    /** Текущий множитель бюджета, {@code min-scale..1}. */
+    public double getScale() { return scale; }
+    public int getParticleBudget() { return particleBudget; }
+    public int getSoundBudget() { return soundBudget; }
+    public int getParticlesSentLastTick() { return particlesSentLastTick; }
+    public int getSoundsSentLastTick() { return soundsSentLastTick; }
+    /** Пакеты частиц, отброшенные бюджетом с момента запуска. */
+    public long getDroppedParticles() { return droppedParticles; }
+    public long getDroppedSounds() { return droppedSounds; }
+}
@@ -0,0 +1,324 @@
+package me.n1xend.meteorites.effects;
+
+import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.EffectsLodSettings;
+import me.n1xend.meteorites.config.ParticleSettings;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Один тикер эффектов на весь плагин: каждый тик проходит по плоскому массиву летящих
+ * метеоритов и их живых сущностей. Мёртвые сущности вычищаются сжатием массива за тот же
+ * проход, метеорит без сущностей выпадает из списка. Задача планировщика одна,
+ * сколько бы метеоритов ни было в воздухе, и снимается, когда летящих не осталось.
+ * <p>
+ * Частицы и звуки шлются только зрителям: игроки в радиусе {@code settings.effects-lod.view-radius}
+ * (не дальше 32 блоков, как у {@code World.spawnParticle}) собираются раз в тик на метеорит,
+ * а дальние из них получают меньше частиц и реже (уровни детализации).
+ * Метеорит без зрителей ничего не отправляет. След атмосферы по умолчанию — одно тело:
+ * центр масс и радиус по выборке сущностей, один выброс частиц и один звук на метеорит;
+ * поблочный след включается {@code atmosphere.per-block}. Всё, что отправляется, проходит через
+ * {@link EffectsGovernor}; при нехватке бюджета первыми обслуживаются метеориты с ближайшими зрителями.
+ */
+public final class EffectsTicker {
+
+    /** Эффекты одного метеорита; сущности добавляются по мере спавна порций. */
+    public static final class Meteor {
+        private final EffectsTicker ticker;
+        private final Trail trail;
+        private final ParticleSettings particles;
+        private final long particlePeriod;
+        private Entity[] entities = new Entity[16];
+        private int size;
+        private boolean registered;
+        // Состояние текущего тика
+        private long trailStep;
+        private long particleStep;
+        private double nearestViewerSq;
+        // Метеорит как одно тело: центр масс и радиус по выборке сущностей
+        private World world;
+        private double centerX, centerY, centerZ, radius;
+
+        private Meteor(EffectsTicker ticker, Trail trail, ParticleSettings particles, long particlePeriod) {
+            this.ticker = ticker;
+            this.trail = trail;
+            this.particles = particles;
+            this.particlePeriod = particlePeriod;
+        }
+
+        public void addAll(Collection<? extends Entity> batch) {
+            if (batch.isEmpty()) return;
+            if (size + batch.size() > entities.length) {
+                entities = Arrays.copyOf(entities, Math.max(entities.length * 2, size + batch.size()));
+            }
+            for (Entity entity : batch) {
+                if (entity != null && !entity.isDead()) entities[size++] = entity;
+            }
+            if (!registered && size > 0) ticker.register(this);
+        }
+
+        public int size() { return size; }
+    }
+
+    /**
+     * След атмосферы из {@code atmosphere}; {@code null} — выключен.
+     *
+     * @param perBlock выброс у каждого блока, а не один на метеорит
+     */
+    record Trail(Particle particle, Sound sound, long interval, double minY, boolean perBlock) {}
+
+    // Уровни детализации: 0 — полная, 1 — половина частиц и каждый 2-й выброс, 2 — четверть и каждый 4-й
+    private static final int TIER_NEAR = 0;
+    private static final int TIER_MID = 1;
+    private static final int TIER_FAR = 2;
+    // Сколько сущностей берётся для центра масс — достаточно для кучного метеорита
+    private static final int CENTROID_SAMPLE = 16;
+    private static final int BODY_MAX_PARTICLES = 48;
+
+    private final JavaPlugin plugin;
+    private final ConfigManager config;
+    private final EffectsGovernor governor;
+    private Meteor[] meteors = new Meteor[8];
+    private Meteor[] due = new Meteor[8];
+    private int count;
+    private long tick;
+    private BukkitTask task;
+
+    // Переиспользуемые буферы тика: зрители текущего метеорита и позиция сущности
+    private Player[] viewers = new Player[16];
+    private int[] viewerTiers = new int[16];
+    private int viewerCount;
+    private double nearestViewerSq;
+    private final Location cursor = new Location(null, 0, 0, 0);
+    private final Location anchor = new Location(null, 0, 0, 0);
+
+    EffectsTicker(JavaPlugin plugin, ConfigManager config) {
+        this.plugin = plugin;
+        this.config = config;
+        this.governor = new EffectsGovernor(config);
+    }
+
+    /** @param particles {@code null} — частиц блоков нет */
+    Meteor create(Trail trail, ParticleSettings particles) {
+        long period = particles != null ? Math.max(1L, particles.interval() * 2L) : 1L;
+        return new Meteor(this, trail, particles, period);
+    }
+
+    private void register(Meteor meteor) {
+        if (count == meteors.length) meteors = Arrays.copyOf(meteors, count * 2);
+        meteors[count++] = meteor;
+        meteor.registered = true;
+        if (task == null) task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::run, 0L, 1L);
+    }
+
+    private void run() {
+        long now = tick++;
+        governor.beginTick();
+        EffectsLodSettings lod = config.getSnapshot().effectsLod();
+        double viewRadiusSq = lod.viewRadiusSq();
+        double nearSq = lod.nearSq();
+        double midSq = lod.midSq();
+
+        int alive = 0;
+        int dueCount = 0;
+        for (int m = 0; m < count; m++) {
+            Meteor meteor = meteors[m];
+
+            // Сжатие на месте: живые сущности сдвигаются к началу массива
+            Entity[] entities = meteor.entities;
+            int live = 0;
+            for (int i = 0; i < meteor.size; i++) {
+                if (!entities[i].isDead()) entities[live++] = entities[i];
+            }
+            Arrays.fill(entities, live, meteor.size, null);
+            meteor.size = live;
+            if (live == 0) {
+                meteor.registered = false;
+                continue;
+            }
+            meteors[alive++] = meteor;
+
+            meteor.trailStep = meteor.trail != null && now % meteor.trail.interval() == 0 ? now / meteor.trail.interval() : -1;
+            meteor.particleStep = meteor.particles != null && now % meteor.particlePeriod == 0 ? now / meteor.particlePeriod : -1;
+            if (meteor.trailStep < 0 && meteor.particleStep < 0) continue;
+
+            updateBody(meteor);
+            if (!collectViewers(bodyLocation(meteor), viewRadiusSq, nearSq, midSq)) continue;
+            meteor.nearestViewerSq = nearestViewerSq;
+            if (dueCount == due.length) due = Arrays.copyOf(due, dueCount * 2);
+            due[dueCount++] = meteor;
+        }
+        Arrays.fill(meteors, alive, count, null);
+        count = alive;
+
+        // Бюджет раздаётся от метеоритов с ближайшими зрителями к дальним
+        sortByNearestViewer(due, dueCount);
+        for (int d = 0; d < dueCount; d++) {
+            Meteor meteor = due[d];
+            due[d] = null;
+            governor.beginMeteor(dueCount - d);
+            collectViewers(bodyLocation(meteor), viewRadiusSq, nearSq, midSq);
+            boolean perBlockTrail = meteor.trail != null && meteor.trail.perBlock();
+            if (!perBlockTrail && meteor.trailStep >= 0) emitBody(meteor);
+            long blockTrailStep = perBlockTrail ? meteor.trailStep : -1;
+            if (blockTrailStep < 0 && meteor.particleStep < 0) continue;
+            for (int i = 0; i < meteor.size; i++) {
+                emit(meteor, meteor.entities[i].getLocation(cursor), blockTrailStep, meteor.particleStep);
+            }
+        }
+        if (count == 0) stop();
+    }
+
+    /** Центр масс и радиус по равномерной выборке не более {@link #CENTROID_SAMPLE} сущностей. */
+    private void updateBody(Meteor meteor) {
+        Entity[] entities = meteor.entities;
+        int stride = Math.max(1, meteor.size / CENTROID_SAMPLE);
+        double sumX = 0, sumY = 0, sumZ = 0;
+        int sampled = 0;
+        for (int i = 0; i < meteor.size; i += stride) {
+            Location loc = entities[i].getLocation(cursor);
+            sumX += loc.getX();
+            sumY += loc.getY();
+            sumZ += loc.getZ();
+            sampled++;
+        }
+        meteor.world = cursor.getWorld();
+        meteor.centerX = sumX / sampled;
+        meteor.centerY = sumY / sampled;
+        meteor.centerZ = sumZ / sampled;
+
+        double maxSq = 0;
+        for (int i = 0; i < meteor.size; i += stride) {
+            Location loc = entities[i].getLocation(cursor);
+            double dx = loc.getX() - meteor.centerX, dy = loc.getY() - meteor.centerY, dz = loc.getZ() - meteor.centerZ;
+            maxSq = Math.max(maxSq, dx * dx + dy * dy + dz * dz);
+        }
+        meteor.radius = Math.sqrt(maxSq);
+    }
+
+    private Location bodyLocation(Meteor meteor) {
+        anchor.setWorld(meteor.world);
+        return anchor.set(meteor.centerX, meteor.centerY, meteor.centerZ);
+    }
+
+    /** След всего метеорита: выброс в центре, размером с тело, и один звук. */
+    private void emitBody(Meteor meteor) {
+        Trail trail = meteor.trail;
+        if (meteor.centerY < trail.minY()) return;
+        int amount = (int) Math.min(BODY_MAX_PARTICLES, 6 * Math.max(1.0, meteor.radius));
+        double spread = Math.max(0.3, meteor.radius * 0.5);
+        Location center = bodyLocation(meteor);
+        for (int v = 0; v < viewerCount; v++) {
+            Player player = viewers[v];
+            int tier = viewerTiers[v];
+            if (due(meteor.trailStep, tier) && governor.takeParticle()) {
+                player.spawnParticle(trail.particle(), meteor.centerX, meteor.centerY, meteor.centerZ,
+                        scaled(amount, tier), spread, spread, spread, 0.01);
+            }
+            if (trail.sound() != null && tier == TIER_NEAR && governor.takeSound()) {
+                player.playSound(center, trail.sound(), 1.0f, 1.3f);
+            }
+        }
+    }
+
+    private boolean collectViewers(Location center, double viewRadiusSq, double nearSq, double midSq) {
+        viewerCount = 0;
+        nearestViewerSq = Double.MAX_VALUE;
+        World world = center.getWorld();
+        if (world == null) return false;
+        for (Player player : world.getPlayers()) {
+            double distSq = player.getLocation(cursor).distanceSquared(center);
+            if (distSq > viewRadiusSq) continue;
+            if (viewerCount == viewers.length) {
+                viewers = Arrays.copyOf(viewers, viewerCount * 2);
+                viewerTiers = Arrays.copyOf(viewerTiers, viewerCount * 2);
+            }
+            viewers[viewerCount] = player;
+            viewerTiers[viewerCount++] = distSq <= nearSq ? TIER_NEAR : distSq <= midSq ? TIER_MID : TIER_FAR;
+            nearestViewerSq = Math.min(nearestViewerSq, distSq);
+        }
+        return viewerCount > 0;
+    }
+
+    // Вставками: метеоритов в воздухе единицы, массив почти упорядочен между тиками
+    private static void sortByNearestViewer(Meteor[] array, int length) {
+        for (int i = 1; i < length; i++) {
+            Meteor key = array[i];
+            int j = i - 1;
+            while (j >= 0 && array[j].nearestViewerSq > key.nearestViewerSq) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = key;
+        }
+    }
+
+    /** @param trailStep номер выброса следа или {@code -1}, если в этот тик не положен; так же для частиц */
+    private void emit(Meteor meteor, Location loc, long trailStep, long particleStep) {
+        Trail trail = trailStep >= 0 && loc.getY() >= meteor.trail.minY() ? meteor.trail : null;
+        // Один бросок на сущность — все зрители видят один и тот же эффект
+        ParticleSettings.Effect effect = particleStep >= 0 ? meteor.particles.pick() : null;
+        if (trail == null && effect == null) return;
+
+        double x = loc.getX(), y = loc.getY(), z = loc.getZ();
+        for (int v = 0; v < viewerCount; v++) {
+            Player player = viewers[v];
+            int tier = viewerTiers[v];
+            if (trail != null && due(trailStep, tier)) {
+                if (governor.takeParticle()) {
+                    player.spawnParticle(trail.particle(), x, y, z, scaled(6, tier), 0.3, 0.3, 0.3, 0.01);
+                }
+                // Звук на половинной громкости слышен лишь вблизи
+                if (trail.sound() != null && tier == TIER_NEAR && governor.takeSound()) {
+                    player.playSound(loc, trail.sound(), 0.5f, 1.3f);
+                }
+            }
+            if (effect != null && due(particleStep, tier) && governor.takeParticle()) {
+                player.spawnParticle(effect.particle(), x, y, z, scaled(effect.amount(), tier),
+                        effect.spread(), effect.spread(), effect.spread(), effect.speed());
+            }
+        }
+    }
+
+    private static boolean due(long step, int tier) {
+        return (step & ((1L << tier) - 1)) == 0;
+    }
+
+    private static int scaled(int amount, int tier) {
+        return amount == 0 ? 0 : Math.max(1, amount >> tier);
+    }
+
+    public EffectsGovernor getGovernor() { return governor; }
+
+    public int getActiveMeteors() { return count; }
+
+    public int getTrackedEntities() {
+        int total = 0;
+        for (int m = 0; m < count; m++) total += meteors[m].size;
+        return total;
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** Выключение: эффекты всех летящих метеоритов прекращаются. */
+    public void cancelAll() {
+        for (int m = 0; m < count; m++) meteors[m].registered = false;
+        Arrays.fill(meteors, 0, count, null);
+        count = 0;
+        stop();
+    }
+}
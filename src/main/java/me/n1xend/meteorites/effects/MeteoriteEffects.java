@@ -2,105 +2,50 @@ package me.n1xend.meteorites.effects;
 
 import me.n1xend.meteorites.LangManager;
 import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.ParticleSettings;
 import org.bukkit.*;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.*;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
-import java.util.ArrayList; // 🔧 ДОБАВЛЕН ИМПОРТ
-import java.util.List;
-import java.util.Random;
 
 public class MeteoriteEffects {
 
     private final JavaPlugin plugin;
     private final ConfigManager config;
     private final LangManager langManager;
+    private final EffectsTicker ticker;
 
     public MeteoriteEffects(JavaPlugin plugin, ConfigManager config, LangManager langManager) {
         this.plugin = plugin;
         this.config = config;
         this.langManager = langManager;
+        this.ticker = new EffectsTicker(plugin, config);
     }
 
-    public void atmosphereTrail(List<FallingBlock> blocks) {
+    /**
+     * Заводит эффекты метеорита в общем тикере: след атмосферы и частицы блоков.
+     * Сущности передаются в {@link EffectsTicker.Meteor#addAll} по мере спавна.
+     */
+    public EffectsTicker.Meteor startMeteor(ParticleSettings settings) {
+        EffectsTicker.Trail trail = null;
         ConfigurationSection sec = config.getAtmosphereSettings();
-        if (sec == null || !sec.getBoolean("enabled", true)) return;
-
-        final Particle particle = getSafeParticle(sec.getString("particle", "FLAME"));
-        final Sound sound = getSafeSound(sec.getString("sound", "ENTITY_BLAZE_SHOOT"));
-
-        final int interval = sec.getInt("interval-ticks", 3);
-        final double minY = sec.getDouble("min-y", 90);
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                boolean alive = false;
-                for (FallingBlock fb : blocks) {
-                    if (fb == null || fb.isDead()) continue;
-                    alive = true;
-                    Location loc = fb.getLocation();
-                    if (loc.getY() < minY) continue;
-                    World w = loc.getWorld();
-                    if (w == null) continue;
-
-                    w.spawnParticle(particle, loc, 6, 0.3, 0.3, 0.3, 0.01);
-
-                    if (sound != null) {
-                        w.playSound(loc, sound, 0.5f, 1.3f);
-                    }
-                }
-                if (!alive) cancel();
-            }
-        }.runTaskTimer(plugin, 0L, Math.max(1L, interval));
-    }
-
-    public void startParticleEffect(List<FallingBlock> fallingBlocks, ConfigurationSection effects) {
-        for (FallingBlock fb : fallingBlocks) {
-            if (fb == null || fb.isDead()) continue;
-
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    if (fb.isDead()) {
-                        cancel();
-                        return;
-                    }
-
-                    List<String> keys = new ArrayList<>(effects.getKeys(false)); // ← РАБОТАЕТ С ИМПОРТОМ
-                    if (keys.isEmpty()) return;
-
-                    String key = keys.get(new Random().nextInt(keys.size()));
-                    ConfigurationSection effect = effects.getConfigurationSection(key);
-                    if (effect == null || !effect.getBoolean("enabled", true)) return;
-                    if (new Random().nextInt(100) >= effect.getInt("chance", 100)) return;
-
-                    String particleName = effect.getString("particle-effect", "FLAME");
-                    Particle particle;
-                    try {
-                        particle = Particle.valueOf(particleName.trim().toUpperCase());
-                    } catch (IllegalArgumentException ignored) {
-                        return;
-                    }
-
-                    int amount = Math.max(0, effect.getInt("amount", 1));
-                    double spread = effect.getDouble("spread", 0.1);
-                    double speed = effect.getDouble("speed", 0.05);
-
-                    World world = fb.getWorld();
-                    if (world != null) {
-                        world.spawnParticle(particle, fb.getLocation(), amount, spread, spread, spread, speed);
-                    }
-                }
-            }.runTaskTimer(plugin, 0L, Math.max(1L, config.getParticleInterval() * 2L));
+        if (sec != null && sec.getBoolean("enabled", true)) {
+            trail = new EffectsTicker.Trail(
+                    getSafeParticle(sec.getString("particle", "FLAME")),
+                    getSafeSound(sec.getString("sound", "ENTITY_BLAZE_SHOOT")),
+                    Math.max(1L, sec.getInt("interval-ticks", 3)),
+                    sec.getDouble("min-y", 90),
+                    sec.getBoolean("per-block", false));
         }
+        return ticker.create(trail, settings.emits() ? settings : null);
     }
 
+    public EffectsTicker getTicker() { return ticker; }
+
     // ... остальные методы без изменений (spawnShockwave, runRadar, playLootAnimation, getDirection, getSafeParticle, getSafeSound) ...
 
     public void spawnShockwave(Location center) {
@@ -0,0 +1,105 @@
+package me.n1xend.meteorites.generator;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Взвешенный выбор блока слоя по alias-таблице Уокера.
+ * Компилируется один раз из секции вида {@code MATERIAL: weight},
+ * после чего каждый выбор — O(1) и без аллокаций.
+ */
+public final class BlockSampler {
+
+    private final BlockData[] blocks;
+    private final double[] probability;
+    private final int[] alias;
+
+    private BlockSampler(BlockData[] blocks, double[] probability, int[] alias) {
+        this.blocks = blocks;
+        this.probability = probability;
+        this.alias = alias;
+    }
+
+    /**
+     * @return сэмплер слоя или {@code null}, если секция не задана
+     */
+    public static BlockSampler compile(ConfigurationSection section) {
+        if (section == null) return null;
+
+        List<BlockData> data = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String key : section.getKeys(false)) {
+            Material mat = Material.matchMaterial(key.toUpperCase());
+            if (mat == null || !mat.isBlock()) continue;
+            data.add(mat.createBlockData());
+            weights.add(Math.max(1, section.getInt(key, 1)));
+        }
+
+        // Как и раньше: пустой или невалидный список — камень
+        if (data.isEmpty()) {
+            return new BlockSampler(new BlockData[]{Material.STONE.createBlockData()}, new double[]{1.0}, new int[]{0});
+        }
+
+        int n = data.size();
+        long total = 0;
+        for (int w : weights) total += w;
+
+        double[] scaled = new double[n];
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) weights.get(i) * n / total;
+            if (scaled[i] < 1.0) small.push(i);
+            else large.push(i);
+        }
+
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) small.push(more);
+            else large.push(more);
+        }
+        // Остатки из-за погрешности округления — вероятность 1
+        while (!large.isEmpty()) probability[large.pop()] = 1.0;
+        while (!small.isEmpty()) probability[small.pop()] = 1.0;
+
+        return new BlockSampler(data.toArray(new BlockData[0]), probability, alias);
+    }
+
+    /** Возвращает общий экземпляр BlockData — не изменять. */
+    public BlockData sample(Random random) {
+        int column = random.nextInt(blocks.length);
+        return random.nextDouble() < probability[column] ? blocks[column] : blocks[alias[column]];
+    }
+
+    /**
+     * Детерминированный выбор для позиции слоя: один и тот же {@code seed} и смещение
+     * всегда дают один блок, независимо от порядка и числа других выборов.
+     */
+    public BlockData sample(long seed, int packed) {
+        long h = mix(seed + packed * 0x9E3779B97F4A7C15L);
+        int column = (int) ((h >>> 32) * blocks.length >>> 32);
+        double roll = (h & 0xFFFFFFFFL) / 4294967296.0;
+        return roll < probability[column] ? blocks[column] : blocks[alias[column]];
+    }
+
+    // Финализатор SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,116 @@
+package me.n1xend.meteorites.generator;
+
+import me.n1xend.meteorites.config.ConfigManager;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Плагинные тикеты чанков на время жизни метеорита: от спавна до приземления последнего блока.
+ * Пересекающиеся метеориты делят тикеты через счётчик ссылок, общее число
+ * удерживаемых чанков ограничено {@code settings.chunk-tickets.max-chunks}.
+ */
+public class ChunkTickets {
+
+    /** Набор чанков, удерживаемых одним метеоритом. */
+    public static final class Lease {
+        private final UUID worldId;
+        private final long[] chunkKeys;
+        private boolean released;
+
+        private Lease(UUID worldId, long[] chunkKeys) {
+            this.worldId = worldId;
+            this.chunkKeys = chunkKeys;
+        }
+
+        public int size() { return chunkKeys.length; }
+    }
+
+    private static final Lease EMPTY = new Lease(null, new long[0]);
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Map<UUID, Map<Long, Integer>> refCounts = new HashMap<>();
+    private int ticketedChunks;
+
+    public ChunkTickets(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    /**
+     * Удерживает чанки в квадрате {@code radius} блоков вокруг точки.
+     * Чанки сверх лимита не тикетятся — метеорит всё равно летит, просто без гарантии.
+     */
+    public Lease acquire(World world, int blockX, int blockZ, int radius) {
+        if (!configManager.areChunkTicketsEnabled()) return EMPTY;
+
+        int maxChunks = configManager.getMaxTicketedChunks();
+        Map<Long, Integer> counts = refCounts.computeIfAbsent(world.getUID(), id -> new HashMap<>());
+        int minX = (blockX - radius) >> 4, maxX = (blockX + radius) >> 4;
+        int minZ = (blockZ - radius) >> 4, maxZ = (blockZ + radius) >> 4;
+
+        long[] keys = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+        int count = 0;
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                long key = chunkKey(cx, cz);
+                Integer refs = counts.get(key);
+                if (refs != null) {
+                    counts.put(key, refs + 1);
+                } else {
+                    if (ticketedChunks >= maxChunks) continue;
+                    world.addPluginChunkTicket(cx, cz, plugin);
+                    counts.put(key, 1);
+                    ticketedChunks++;
+                }
+                keys[count++] = key;
+            }
+        }
+        return new Lease(world.getUID(), Arrays.copyOf(keys, count));
+    }
+
+    /** Снимает тикеты метеорита; повторный вызов безопасен. */
+    public void release(Lease lease) {
+        if (lease == null || lease.released || lease.worldId == null) return;
+        lease.released = true;
+
+        Map<Long, Integer> counts = refCounts.get(lease.worldId);
+        if (counts == null) return;
+        World world = Bukkit.getWorld(lease.worldId);
+
+        for (long key : lease.chunkKeys) {
+            Integer refs = counts.get(key);
+            if (refs == null) continue;
+            if (refs > 1) {
+                counts.put(key, refs - 1);
+                continue;
+            }
+            counts.remove(key);
+            ticketedChunks--;
+            if (world != null) world.removePluginChunkTicket(chunkX(key), chunkZ(key), plugin);
+        }
+        if (counts.isEmpty()) refCounts.remove(lease.worldId);
+    }
+
+    /** Снимает все тикеты плагина (выключение). */
+    public void releaseAll() {
+        for (UUID worldId : refCounts.keySet()) {
+            World world = Bukkit.getWorld(worldId);
+            if (world != null) world.removePluginChunkTickets(plugin);
+        }
+        refCounts.clear();
+        ticketedChunks = 0;
+    }
+
+    public int getTicketedChunks() { return ticketedChunks; }
+
+    private static long chunkKey(int x, int z) { return (x & 0xFFFFFFFFL) | ((long) z << 32); }
+    private static int chunkX(long key) { return (int) key; }
+    private static int chunkZ(long key) { return (int) (key >> 32); }
+}
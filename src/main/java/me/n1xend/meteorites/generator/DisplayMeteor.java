@@ -0,0 +1,158 @@
+package me.n1xend.meteorites.generator;
+
+import me.n1xend.meteorites.config.MeteoriteType;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Метеорит в режиме {@code BLOCK_DISPLAY}: вместо сотен FallingBlock'ов — десятки BlockDisplay,
+ * каждый из которых отрисовывает ячейку сферы {@code cell-size³}. Группа опускается
+ * интерполированными телепортами, а реальные блоки ставятся генератором при касании земли.
+ */
+public class DisplayMeteor extends BukkitRunnable {
+
+    private static final int PERIOD_TICKS = 2;
+
+    private final List<BlockDisplay> displays;
+    private final Location position;
+    private final double targetY;
+    private final double step;
+    private final Consumer<DisplayMeteor> onLanded;
+
+    private DisplayMeteor(List<BlockDisplay> displays, Location position, double targetY,
+                          double speed, Consumer<DisplayMeteor> onLanded) {
+        this.displays = displays;
+        this.position = position;
+        this.targetY = targetY;
+        this.step = Math.max(0.05, speed) * PERIOD_TICKS;
+        this.onLanded = onLanded;
+    }
+
+    /**
+     * Спавнит группу BlockDisplay над ядром и запускает падение.
+     * Материал ячейки выбирается тем же {@code seed}, что и блоки при ударе.
+     *
+     * @param onLanded вызывается один раз, когда группа достигла {@code coreLocation}
+     */
+    public static DisplayMeteor launch(JavaPlugin plugin, MeteoriteType type, Location coreLocation,
+                                       double startY, int cellSize, long seed,
+                                       Consumer<DisplayMeteor> onLanded) {
+        World world = coreLocation.getWorld();
+        // Точка привязки — угол блока ядра: смещения ячеек задаются трансформацией
+        Location position = new Location(world, coreLocation.getBlockX(), startY, coreLocation.getBlockZ());
+
+        List<BlockDisplay> displays = new ArrayList<>();
+        for (Cell cell : buildCells(type, Math.max(1, cellSize))) {
+            BlockData data = cell.sampler.sample(seed, cell.packed);
+            Transformation transformation = new Transformation(
+                    new Vector3f(cell.minX, cell.minY, cell.minZ),
+                    new Quaternionf(),
+                    new Vector3f(cell.maxX - cell.minX + 1, cell.maxY - cell.minY + 1, cell.maxZ - cell.minZ + 1),
+                    new Quaternionf()
+            );
+            displays.add(world.spawn(position, BlockDisplay.class, display -> {
+                display.setBlock(data);
+                display.setTransformation(transformation);
+                display.setTeleportDuration(PERIOD_TICKS);
+                display.setPersistent(false);
+            }));
+        }
+
+        DisplayMeteor meteor = new DisplayMeteor(displays, position, coreLocation.getBlockY(), type.speed(), onLanded);
+        meteor.runTaskTimer(plugin, PERIOD_TICKS, PERIOD_TICKS);
+        return meteor;
+    }
+
+    @Override
+    public void run() {
+        double nextY = position.getY() - step;
+        if (nextY <= targetY) {
+            land();
+            return;
+        }
+        position.setY(nextY);
+        for (BlockDisplay display : displays) {
+            if (display.isValid()) display.teleport(position);
+        }
+    }
+
+    private void land() {
+        cancel();
+        removeDisplays();
+        onLanded.accept(this);
+    }
+
+    /** Убирает группу без удара (выключение плагина). */
+    public void discard() {
+        cancel();
+        removeDisplays();
+    }
+
+    private void removeDisplays() {
+        for (BlockDisplay display : displays) {
+            if (display.isValid()) display.remove();
+        }
+        displays.clear();
+    }
+
+    /** Первый BlockDisplay группы — точка привязки для частиц и следа. */
+    public List<BlockDisplay> getAnchor() {
+        return displays.isEmpty() ? List.of() : List.of(displays.get(0));
+    }
+
+    public int getEntityCount() { return displays.size(); }
+
+    // === РАЗБИЕНИЕ СФЕРЫ НА ЯЧЕЙКИ ===
+    private static final class Cell {
+        private final BlockSampler sampler;
+        // Позиция слоя, по которой выбирается материал всей ячейки
+        private final int packed;
+        private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+        private Cell(BlockSampler sampler, int packed) {
+            this.sampler = sampler;
+            this.packed = packed;
+        }
+
+        private void include(int x, int y, int z) {
+            minX = Math.min(minX, x); minY = Math.min(minY, y); minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x); maxY = Math.max(maxY, y); maxZ = Math.max(maxZ, z);
+        }
+    }
+
+    private static List<Cell> buildCells(MeteoriteType type, int cellSize) {
+        MeteoriteShape shape = type.shape();
+        int[][] layers = {shape.core(), shape.inner(), shape.outer()};
+        BlockSampler[] samplers = {type.coreBlocks(), type.innerBlocks(), type.outerBlocks()};
+
+        // Ячейка получает материал самого внутреннего слоя, попавшего в неё
+        Map<Integer, Cell> cells = new HashMap<>();
+        for (int layer = 0; layer < layers.length; layer++) {
+            if (samplers[layer] == null) continue;
+            for (int packed : layers[layer]) {
+                int x = MeteoriteShape.unpackX(packed);
+                int y = MeteoriteShape.unpackY(packed);
+                int z = MeteoriteShape.unpackZ(packed);
+                int key = MeteoriteShape.pack(
+                        Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize), Math.floorDiv(z, cellSize));
+                BlockSampler sampler = samplers[layer];
+                cells.computeIfAbsent(key, k -> new Cell(sampler, packed)).include(x, y, z);
+            }
+        }
+        return new ArrayList<>(cells.values());
+    }
+}
@@ -0,0 +1,137 @@
+package me.n1xend.meteorites.generator;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Отслеживает летящие блоки каждого метеорита и запускает удар по событию:
+ * когда спавн закончен и приземлилось ядро или в полёте не осталось ни одного блока.
+ * Таймер остаётся только страховкой на случай потерянных событий.
+ * Блоки в полёте индексируются по id сущности в примитивной карте — событие приземления
+ * находит свой метеорит без метаданных и без упаковки ключей.
+ */
+public class ImpactTracker {
+
+    private static final class Flight {
+        private final UUID meteorId;
+        private final Runnable onImpact;
+        private final Runnable onSettled;
+        private int inFlight;
+        private int core = -1;
+        private boolean coreLanded;
+        private boolean spawning = true;
+        private boolean fired;
+        private BukkitTask timeout;
+
+        private Flight(UUID meteorId, Runnable onImpact, Runnable onSettled) {
+            this.meteorId = meteorId;
+            this.onImpact = onImpact;
+            this.onSettled = onSettled;
+        }
+    }
+
+    private final JavaPlugin plugin;
+    // Полёт живёт до конца спавна и последнего приземления, а не до удара:
+    // порции конвейера, заспавненные после удара, тоже регистрируются
+    private final Map<UUID, Flight> flights = new HashMap<>();
+    // Записи переживают полёт: опоздавший блок всё ещё узнаёт свой метеорит
+    private final IntObjectMap<Flight> byEntity = new IntObjectMap<>();
+
+    public ImpactTracker(JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Регистрирует метеорит до спавна первого блока.
+     *
+     * @param onSettled вызывается после удара, когда приземлился последний блок или вышел таймаут
+     */
+    public void begin(UUID meteorId, Runnable onImpact, Runnable onSettled) {
+        flights.put(meteorId, new Flight(meteorId, onImpact, onSettled));
+    }
+
+    public void track(UUID meteorId, Entity entity, boolean core) {
+        Flight flight = flights.get(meteorId);
+        if (flight == null) return;
+        byEntity.put(entity.getEntityId(), flight);
+        flight.inFlight++;
+        if (core) flight.core = entity.getEntityId();
+    }
+
+    /**
+     * Все блоки заспавнены: если ядро уже приземлилось или в полёте пусто — удар сразу.
+     * Полёт снимается с учёта, когда приземлится последний блок, но не позже {@code timeoutTicks}.
+     */
+    public void spawningComplete(UUID meteorId, long timeoutTicks) {
+        Flight flight = flights.get(meteorId);
+        if (flight == null) return;
+        flight.spawning = false;
+        if (flight.coreLanded) fire(flight);
+        if (settleIfEmpty(flight)) return;
+        flight.timeout = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            fire(flight);
+            settle(flight);
+        }, Math.max(1L, timeoutTicks));
+    }
+
+    /** @return метеорит, которому принадлежит сущность, или {@code null} для чужих блоков */
+    public UUID meteorOf(int entityId) {
+        Flight flight = byEntity.get(entityId);
+        return flight != null ? flight.meteorId : null;
+    }
+
+    /** Блок метеорита превратился в блок мира. */
+    public void landed(int entityId) {
+        Flight flight = byEntity.remove(entityId);
+        if (flight == null) return;
+        flight.inFlight--;
+        if (entityId == flight.core) flight.coreLanded = true;
+        // Пока конвейер спавнит порции, удар откладывается до spawningComplete
+        if (flight.spawning) return;
+        if (flight.coreLanded) fire(flight);
+        settleIfEmpty(flight);
+    }
+
+    /** Блок метеорита исчез из мира (приземлился, разбился, выгружен). */
+    public void removed(int entityId) {
+        Flight flight = byEntity.remove(entityId);
+        if (flight == null) return;
+        flight.inFlight--;
+        if (flight.spawning) return;
+        settleIfEmpty(flight);
+    }
+
+    private boolean settleIfEmpty(Flight flight) {
+        if (flight.inFlight > 0) return false;
+        fire(flight);
+        settle(flight);
+        return true;
+    }
+
+    private void fire(Flight flight) {
+        if (flight.fired) return;
+        flight.fired = true;
+        flight.onImpact.run();
+    }
+
+    private void settle(Flight flight) {
+        if (flights.remove(flight.meteorId) == null) return;
+        if (flight.timeout != null) flight.timeout.cancel();
+        flight.onSettled.run();
+    }
+
+    public int getActiveFlights() { return flights.size(); }
+
+    public void cancelAll() {
+        for (Flight flight : flights.values()) {
+            if (flight.timeout != null) flight.timeout.cancel();
+        }
+        flights.clear();
+        byEntity.clear();
+    }
+}
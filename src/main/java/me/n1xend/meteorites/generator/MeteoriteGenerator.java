@@ -1,45 +1,62 @@
 package me.n1xend.meteorites.generator;
 
-import me.n1xend.meteorites.CustomMeteorites;
 import me.n1xend.meteorites.LangManager;
 import me.n1xend.meteorites.MeteoriteManager;
 import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.ConfigSnapshot;
+import me.n1xend.meteorites.config.ExplosionSettings;
+import me.n1xend.meteorites.config.GuardianType;
+import me.n1xend.meteorites.config.MeteoriteType;
+import me.n1xend.meteorites.config.TreasureSettings;
+import me.n1xend.meteorites.effects.EffectsTicker;
 import me.n1xend.meteorites.effects.MeteoriteEffects;
-import me.n1xend.meteorites.listener.MeteoriteBlockListener;
 import org.bukkit.*;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
 import org.bukkit.block.Block;
 import org.bukkit.block.Container;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.*;
 import org.bukkit.inventory.EntityEquipment;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Vector;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class MeteoriteGenerator {
 
+    private static final int[] NO_OFFSETS = new int[0];
+    private static final int UNKNOWN_SURFACE = Integer.MIN_VALUE;
+    // Запас на боковой разлёт FallingBlock'ов относительно радиуса сферы
+    private static final int FOOTPRINT_MARGIN = 2;
+
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final LangManager langManager;
+    // Единый реестр: блоки, удар и очистка метеорита учитываются только там
+    private final MeteoriteManager meteoriteManager;
     private final MeteoriteEffects effects;
+    private final SpawnPipeline spawnPipeline;
+    private final ImpactTracker impactTracker;
+    private final ChunkTickets chunkTickets;
+    private final SpawnSiteSelector spawnSiteSelector;
     private final Random random = new Random();
 
-    private final Map<Integer, BukkitTask> cleanupTasks = new HashMap<>();
-    private final Map<Integer, Set<Location>> meteoriteBlocks = new HashMap<>();
+    private final Set<DisplayMeteor> activeDisplays = new HashSet<>();
 
-    public MeteoriteGenerator(JavaPlugin plugin, ConfigManager configManager, LangManager langManager) {
+    public MeteoriteGenerator(JavaPlugin plugin, ConfigManager configManager, LangManager langManager,
+                              MeteoriteManager meteoriteManager) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.langManager = langManager;
+        this.meteoriteManager = meteoriteManager;
         this.effects = new MeteoriteEffects(plugin, configManager, langManager);
+        this.spawnPipeline = new SpawnPipeline(plugin, configManager);
+        this.impactTracker = new ImpactTracker(plugin);
+        this.chunkTickets = new ChunkTickets(plugin, configManager);
+        this.spawnSiteSelector = new SpawnSiteSelector(plugin, configManager, this::findRandomSpawnLocation);
     }
 
     public void createMeteoriteAt(Location spawnLocation, String meteoriteId) {
@@ -48,20 +65,70 @@ public class MeteoriteGenerator {
             return;
         }
 
-        ConfigurationSection meteoritesSection = configManager.getMeteoritesConfig();
-        if (meteoritesSection == null) {
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+        if (snapshot.meteorites().isEmpty()) {
             plugin.getLogger().severe(langManager.getMessage("error.no_meteorites_section"));
             return;
         }
 
-        ConfigurationSection meteoriteSection = meteoritesSection.getConfigurationSection(meteoriteId);
-        if (meteoriteSection == null) {
+        MeteoriteType type = snapshot.getMeteorite(meteoriteId);
+        if (type == null) {
             plugin.getLogger().severe(langManager.getMessage("error.meteorite_not_found", "id", meteoriteId));
             return;
         }
 
+        createMeteoriteAt(spawnLocation, type);
+    }
+
+    public void createMeteoriteAt(Location spawnLocation, MeteoriteType type) {
+        createMeteoriteAt(spawnLocation, type, UNKNOWN_SURFACE);
+    }
+
+    /**
+     * Асинхронно подгружает чанки вокруг точки удара, определяет высоту поверхности
+     * по уже загруженному чанку и только затем запускает метеорит в основном потоке.
+     */
+    public void createMeteoriteAtAsync(Location spawnLocation, MeteoriteType type) {
+        World world = spawnLocation.getWorld();
+        if (world == null) {
+            plugin.getLogger().warning(langManager.getMessage("error.world_null"));
+            return;
+        }
+
+        int blockX = spawnLocation.getBlockX();
+        int blockZ = spawnLocation.getBlockZ();
+        int chunkX = blockX >> 4;
+        int chunkZ = blockZ >> 4;
+        int radius = (type.outerSize() >> 4) + 1;
+
+        List<CompletableFuture<Chunk>> futures = new ArrayList<>();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                futures.add(world.getChunkAtAsync(chunkX + dx, chunkZ + dz));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    plugin.getLogger().warning(langManager.getMessage("error.chunk_preload",
+                            "location", world.getName() + ":" + blockX + ":" + blockZ) + ": " + error.getMessage());
+                    return;
+                }
+                // Чанк уже загружен — запрос высоты не блокирует основной поток
+                int surfaceY = world.getHighestBlockYAt(blockX, blockZ, HeightMap.OCEAN_FLOOR);
+                createMeteoriteAt(spawnLocation, type, surfaceY);
+            });
+        });
+    }
+
+    private void createMeteoriteAt(Location spawnLocation, MeteoriteType type, int knownSurfaceY) {
+        // Снимок фиксируется на весь полёт: reload не затронет уже летящий метеорит
+        ConfigSnapshot snapshot = configManager.getSnapshot();
+
         // Отправка сообщения о спавне через локализацию
-        String message = meteoriteSection.getString("chat-message");
+        String message = type.chatMessage();
         if (message != null && !message.trim().isEmpty()) {
             message = langManager.processPlaceholders(message,
                     "x", String.valueOf(spawnLocation.getBlockX()),
@@ -71,16 +138,13 @@ public class MeteoriteGenerator {
         }
 
         // Выполнение команд при спавне
-        List<String> spawnCommands = meteoriteSection.getStringList("meteorite-spawn-commands");
-        if (spawnCommands != null) {
-            for (String cmd : spawnCommands) {
-                if (cmd != null && !cmd.trim().isEmpty()) {
-                    Bukkit.dispatchCommand(
-                            Bukkit.getConsoleSender(),
-                            cmd.replace("%x%", String.valueOf(spawnLocation.getBlockX()))
-                                    .replace("%z%", String.valueOf(spawnLocation.getBlockZ()))
-                    );
-                }
+        for (String cmd : type.spawnCommands()) {
+            if (!cmd.trim().isEmpty()) {
+                Bukkit.dispatchCommand(
+                        Bukkit.getConsoleSender(),
+                        cmd.replace("%x%", String.valueOf(spawnLocation.getBlockX()))
+                                .replace("%z%", String.valueOf(spawnLocation.getBlockZ()))
+                );
             }
         }
 
@@ -91,179 +155,199 @@ public class MeteoriteGenerator {
         }
 
         Location coreLocation = spawnLocation.clone();
-        int surfaceY = world.getHighestBlockYAt(coreLocation.getBlockX(), coreLocation.getBlockZ(), HeightMap.OCEAN_FLOOR);
+        int surfaceY = knownSurfaceY != UNKNOWN_SURFACE
+                ? knownSurfaceY
+                : world.getHighestBlockYAt(coreLocation.getBlockX(), coreLocation.getBlockZ(), HeightMap.OCEAN_FLOOR);
         coreLocation.setY(surfaceY + 1);
 
-        int outerSize = meteoriteSection.getInt("outer-layer-size", 3);
-        int innerSize = meteoriteSection.getBoolean("enable-inner-layer", false)
-                ? meteoriteSection.getInt("inner-layer-size", 2)
-                : 0;
-        int coreSize = 1;
-
-        ConfigurationSection coreBlocksSec = meteoriteSection.getConfigurationSection("core-block");
-        ConfigurationSection innerBlocksSec = meteoriteSection.getConfigurationSection("inner-layer-blocks");
-        ConfigurationSection outerBlocksSec = meteoriteSection.getConfigurationSection("outer-layer-blocks");
-
-        List<Location> corePositions = new ArrayList<>();
-        List<Location> innerPositions = new ArrayList<>();
-        List<Location> outerPositions = new ArrayList<>();
-
-        for (int x = -outerSize; x <= outerSize; x++) {
-            for (int y = -outerSize; y <= outerSize; y++) {
-                for (int z = -outerSize; z <= outerSize; z++) {
-                    double dist = Math.sqrt(x * x + y * y + z * z);
-                    Location blockLoc = coreLocation.clone().add(x, y, z);
-                    if (blockLoc.getBlockY() <= 0 || blockLoc.getBlockY() >= world.getMaxHeight()) continue;
-
-                    if (dist <= coreSize - 0.5) {
-                        corePositions.add(blockLoc);
-                    } else if (dist <= innerSize - 0.5) {
-                        innerPositions.add(blockLoc);
-                    } else if (dist <= outerSize - 0.5) {
-                        outerPositions.add(blockLoc);
-                    }
-                }
-            }
-        }
-
-        int meteorId = random.nextInt(Integer.MAX_VALUE);
-        meteoriteBlocks.putIfAbsent(meteorId, new HashSet<>());
+        // Геометрия и выбор блоков уже скомпилированы в типе метеорита
+        MeteoriteShape shape = type.shape();
 
-        // Сбор всех материалов метеорита для персистентной очистки
-        Set<String> allMaterials = new HashSet<>();
-        if (coreBlocksSec != null) allMaterials.addAll(coreBlocksSec.getKeys(false));
-        if (innerBlocksSec != null) allMaterials.addAll(innerBlocksSec.getKeys(false));
-        if (outerBlocksSec != null) allMaterials.addAll(outerBlocksSec.getKeys(false));
+        // Сид фиксирует блоки, поставленные при ударе; их позиции выводятся из геометрии и маски
+        long seed = random.nextLong();
+        RenderMode renderMode = configManager.getRenderMode();
+        UUID meteorId = meteoriteManager.begin(coreLocation, type, snapshot.treasure(), seed,
+                MeteoriteLayout.Placement.of(renderMode)).getUuid();
 
-        List<FallingBlock> fallingBlocks = new ArrayList<>();
-        fallingBlocks.addAll(createLayer(corePositions, coreBlocksSec, world, meteorId));
-        fallingBlocks.addAll(createLayer(innerPositions, innerBlocksSec, world, meteorId));
-        fallingBlocks.addAll(createLayer(outerPositions, outerBlocksSec, world, meteorId));
+        // 🔥 Чанки следа и места удара держатся загруженными до конца удара
+        ChunkTickets.Lease tickets = chunkTickets.acquire(world,
+                coreLocation.getBlockX(), coreLocation.getBlockZ(), type.outerSize() + FOOTPRINT_MARGIN);
 
-        double speed = meteoriteSection.getDouble("meteorite-speed", 2.0);
-        for (FallingBlock fb : fallingBlocks) {
-            if (fb == null || fb.isDead()) continue;
-            Vector velocity = new Vector(
-                    (random.nextDouble() - 0.5) * 0.5,
-                    -speed,
-                    (random.nextDouble() - 0.5) * 0.5
-            );
-            fb.setVelocity(velocity);
-            fb.setDropItem(false);
-            fb.setMetadata(MeteoriteBlockListener.METEOR_META_KEY,
-                    new FixedMetadataValue(plugin, meteorId));
+        if (renderMode == RenderMode.BLOCK_DISPLAY) {
+            launchDisplayMeteor(coreLocation, snapshot, type, meteorId, seed, tickets);
+            meteoriteManager.markFalling(meteorId);
+            return;
         }
 
-        effects.atmosphereTrail(fallingBlocks);
-
-        if (configManager.areParticlesEnabled() && !fallingBlocks.isEmpty()) {
-            ConfigurationSection particleEffects = configManager.getParticleEffects();
-            if (particleEffects != null) {
-                effects.startParticleEffect(fallingBlocks, particleEffects);
-            }
+        // В режиме HOLLOW_SHELL падает только оболочка, внутренность ставится при ударе
+        boolean hollow = renderMode == RenderMode.HOLLOW_SHELL;
+        int[][] layers = new int[MeteoriteShape.LAYER_COUNT][];
+        BlockSampler[] samplers = {type.coreBlocks(), type.innerBlocks(), type.outerBlocks()};
+        for (int layer = 0; layer < MeteoriteShape.LAYER_COUNT; layer++) {
+            boolean present = samplers[layer] != null;
+            layers[layer] = !present ? NO_OFFSETS : hollow ? shape.visible(layer) : shape.layer(layer);
         }
+        Location cursor = new Location(world, 0, 0, 0);
+        // Эффекты всех порций — в одной записи общего тикера
+        EffectsTicker.Meteor meteorEffects = effects.startMeteor(snapshot.particles());
+
+        // Удар — по приземлению ядра после конца спавна, а не по таймеру.
+        // Тикеты держатся, пока не приземлится последний блок: внешние слои ещё падают
+        impactTracker.begin(meteorId, () -> {
+            if (hollow) placeMeteorBlocks(coreLocation, type, seed, MeteoriteLayout.Placement.HIDDEN, meteorId);
+            completeImpact(coreLocation, snapshot, type, meteorId);
+        }, () -> {
+            // Опоздавшие блоки пишутся в PDC, пока чанки ещё держатся тикетами
+            meteoriteManager.flushBlocks(meteorId);
+            chunkTickets.release(tickets);
+        });
+
+        // Список растёт по мере спавна порций — след атмосферы читает его же
+        spawnPipeline.submit(layers,
+                (layer, packed) -> {
+                    FallingBlock fb = spawnMeteorBlock(cursor, coreLocation, samplers[layer], packed, seed, type.speed());
+                    if (fb != null) impactTracker.track(meteorId, fb, layer == MeteoriteShape.LAYER_CORE);
+                    return fb;
+                },
+                meteorEffects::addAll,
+                () -> {
+                    meteoriteManager.markFalling(meteorId);
+                    impactTracker.spawningComplete(meteorId, impactTimeoutTicks(coreLocation, type));
+                });
+    }
+
+    private void launchDisplayMeteor(Location coreLocation,
+                                     ConfigSnapshot snapshot,
+                                     MeteoriteType type,
+                                     UUID meteorId,
+                                     long seed,
+                                     ChunkTickets.Lease tickets) {
+        double startY = Math.max(configManager.getSpawnHeight(), coreLocation.getBlockY() + type.outerSize() + 1.0);
+        DisplayMeteor meteor = DisplayMeteor.launch(plugin, type, coreLocation, startY,
+                configManager.getDisplayCellSize(), seed, landed -> {
+                    activeDisplays.remove(landed);
+                    placeMeteorBlocks(coreLocation, type, seed, MeteoriteLayout.Placement.FULL, meteorId);
+                    try {
+                        completeImpact(coreLocation, snapshot, type, meteorId);
+                    } finally {
+                        chunkTickets.release(tickets);
+                    }
+                });
+        activeDisplays.add(meteor);
 
-        int cleanupInterval = meteoriteSection.getInt("clean-up-meteorite-blocks-interval", 0);
-        scheduleImpactHandling(coreLocation, meteoriteSection, cleanupInterval, meteorId, allMaterials);
+        effects.startMeteor(snapshot.particles()).addAll(meteor.getAnchor());
     }
 
-    private List<FallingBlock> createLayer(List<Location> positions,
-                                           ConfigurationSection materialSection,
-                                           World world,
-                                           int meteorId) {
-        List<FallingBlock> blocks = new ArrayList<>();
-        if (materialSection == null || positions.isEmpty()) return blocks;
-
-        for (Location loc : positions) {
-            Material material = getRandomMaterial(materialSection);
-            if (material == null || !material.isBlock()) continue;
-
-            try {
-                FallingBlock fb = world.spawnFallingBlock(loc, material.createBlockData());
-                fb.setDropItem(false);
-                fb.setMetadata(MeteoriteBlockListener.METEOR_META_KEY,
-                        new FixedMetadataValue(plugin, meteorId));
-                blocks.add(fb);
-            } catch (Exception e) {
-                plugin.getLogger().warning(langManager.getMessage("error.falling_block_spawn") + " " + loc + ": " + e.getMessage());
-            }
-        }
-        return blocks;
+    /**
+     * Ставит блоки метеорита вокруг ядра одним пакетом без физики
+     * (BLOCK_DISPLAY — вся сфера, HOLLOW_SHELL — скрытая внутренность).
+     * Твёрдый рельеф не затирается — метеорит ложится на поверхность.
+     * В реестр пишется только маска поставленных ячеек: позиции выводит {@link MeteoriteLayout},
+     * а пропущенный рельеф очистка не трогает.
+     */
+    private void placeMeteorBlocks(Location coreLocation, MeteoriteType type, long seed,
+                                   MeteoriteLayout.Placement placement, UUID meteorId) {
+        World world = coreLocation.getWorld();
+        if (world == null) return;
+
+        int maxHeight = world.getMaxHeight();
+        BitSet placed = new BitSet();
+        MeteoriteLayout.forEach(type, placement, seed,
+                coreLocation.getBlockX(), coreLocation.getBlockY(), coreLocation.getBlockZ(), (index, x, y, z, data) -> {
+                    if (y <= 0 || y >= maxHeight) return;
+                    Block block = world.getBlockAt(x, y, z);
+                    Material current = block.getType();
+                    if (!current.isAir() && !block.isLiquid() && current.isSolid()) return;
+                    block.setBlockData(data, false);
+                    placed.set(index);
+                });
+        meteoriteManager.markPlaced(meteorId, placed);
     }
 
-    private Material getRandomMaterial(ConfigurationSection section) {
-        List<Material> pool = new ArrayList<>();
-        for (String key : section.getKeys(false)) {
-            Material mat = Material.matchMaterial(key.toUpperCase());
-            if (mat == null || !mat.isBlock()) continue;
-            int weight = section.getInt(key, 1);
-            for (int i = 0; i < Math.max(1, weight); i++) {
-                pool.add(mat);
-            }
+    private FallingBlock spawnMeteorBlock(Location cursor,
+                                          Location coreLocation,
+                                          BlockSampler sampler,
+                                          int packed,
+                                          long seed,
+                                          double speed) {
+        World world = coreLocation.getWorld();
+        int dy = MeteoriteShape.unpackY(packed);
+        int blockY = coreLocation.getBlockY() + dy;
+        if (blockY <= 0 || blockY >= world.getMaxHeight()) return null;
+
+        // Один переиспользуемый курсор вместо clone().add() на каждый блок
+        cursor.set(coreLocation.getX() + MeteoriteShape.unpackX(packed),
+                coreLocation.getY() + dy,
+                coreLocation.getZ() + MeteoriteShape.unpackZ(packed));
+        try {
+            FallingBlock fb = world.spawnFallingBlock(cursor, sampler.sample(seed, packed));
+            fb.setVelocity(new Vector(
+                    (random.nextDouble() - 0.5) * 0.5,
+                    -speed,
+                    (random.nextDouble() - 0.5) * 0.5
+            ));
+            fb.setDropItem(false);
+            return fb;
+        } catch (Exception e) {
+            plugin.getLogger().warning(langManager.getMessage("error.falling_block_spawn") + " " + cursor + ": " + e.getMessage());
+            return null;
         }
-        if (pool.isEmpty()) return Material.STONE;
-        return pool.get(random.nextInt(pool.size()));
     }
 
-    private void scheduleImpactHandling(Location coreLocation,
-                                        ConfigurationSection meteoriteSection,
-                                        int cleanupInterval,
-                                        int meteorId,
-                                        Set<String> allMaterials) {
+    /**
+     * Страховочный таймаут удара: прежняя оценка времени падения,
+     * но не меньше {@code settings.impact-timeout-ticks}.
+     */
+    private long impactTimeoutTicks(Location coreLocation, MeteoriteType type) {
         double spawnHeight = configManager.getSpawnHeight();
-        double speed = meteoriteSection.getDouble("meteorite-speed", 2.0);
         int fallTicks = Math.max(20,
-                (int) ((spawnHeight - coreLocation.getY()) / Math.max(0.001, speed) * 20)) + 40;
-
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            handleImpact(coreLocation, meteoriteSection, meteorId);
+                (int) ((spawnHeight - coreLocation.getY()) / Math.max(0.001, type.speed()) * 20)) + 40;
+        return Math.max(fallTicks, configManager.getImpactTimeoutTicks());
+    }
 
-            // 🔥 РЕГИСТРАЦИЯ ДЛЯ ПЕРСИСТЕНТНОЙ ОЧИСТКИ
-            if (plugin instanceof CustomMeteorites customPlugin && customPlugin.getMeteoriteManager() != null) {
-                customPlugin.getMeteoriteManager().registerMeteorite(coreLocation, cleanupInterval, allMaterials);
-            }
+    private void completeImpact(Location coreLocation,
+                                ConfigSnapshot snapshot,
+                                MeteoriteType type,
+                                UUID meteorId) {
+        handleImpact(coreLocation, snapshot, type, meteorId);
 
-            // Старая система очистки как fallback
-            if (cleanupInterval > 0) {
-                int radius = meteoriteSection.getInt("outer-layer-size", 3);
-                scheduleCleanup(coreLocation, radius, cleanupInterval, meteorId);
-            }
-        }, fallTicks);
+        // 🔥 Сохранение и очистка — одним проходом через реестр, срок в тиках из конфига
+        meteoriteManager.land(meteorId);
     }
 
     private void handleImpact(Location coreLocation,
-                              ConfigurationSection meteoriteSection,
-                              int meteorId) {
+                              ConfigSnapshot snapshot,
+                              MeteoriteType type,
+                              UUID meteorId) {
         World world = coreLocation.getWorld();
         if (world == null) return;
 
-        createExplosionIfEnabled(configManager.getCoreSettings(), coreLocation);
-        if (meteoriteSection.getBoolean("enable-inner-layer", false)) {
-            createExplosionIfEnabled(configManager.getInnerLayerSettings(), coreLocation);
+        ExplosionSettings coreSet = snapshot.coreExplosion();
+        createExplosionIfEnabled(coreSet, coreLocation);
+        if (type.innerLayerEnabled()) {
+            createExplosionIfEnabled(snapshot.innerExplosion(), coreLocation);
         }
-        createExplosionIfEnabled(configManager.getOuterLayerSettings(), coreLocation);
+        createExplosionIfEnabled(snapshot.outerExplosion(), coreLocation);
 
-        ConfigurationSection coreSet = configManager.getCoreSettings();
-        if (coreSet != null && coreSet.getBoolean("enable-lighting-strike", true)) {
+        if (coreSet != null && coreSet.lightningStrike()) {
             world.strikeLightningEffect(coreLocation);
         }
 
-        if (configManager.isTreasureEnabled()) {
-            Material type = Material.matchMaterial(configManager.getTreasureType());
-            if (type == Material.CHEST || type == Material.BARREL) {
-                Block block = coreLocation.getBlock();
-                block.setType(type);
-                addMeteoriteBlock(meteorId, block.getLocation());
+        TreasureSettings treasure = snapshot.treasure();
+        Material containerType = treasure.container();
+        if (containerType != null) {
+            Block block = coreLocation.getBlock();
+            block.setType(containerType);
+            addMeteoriteBlock(meteorId, block);
 
-                if (block.getState() instanceof Container container) {
-                    TreasureLoot.fillChest(container.getInventory(), configManager.getTreasureContent(), langManager);
-                    effects.playLootAnimation(block.getLocation());
-                }
+            if (block.getState() instanceof Container container) {
+                TreasureLoot.fillChest(container.getInventory(), treasure.items(), langManager);
+                effects.playLootAnimation(block.getLocation());
             }
         }
 
-        if (configManager.isGuardianEnabled()) {
-            spawnGuardian(coreLocation);
+        if (snapshot.guardiansEnabled()) {
+            spawnGuardian(coreLocation, snapshot.guardians());
         }
 
         // Сообщение об ударе через локализацию
@@ -279,32 +363,18 @@ public class MeteoriteGenerator {
         effects.runRadar(coreLocation);
     }
 
-    private void createExplosionIfEnabled(ConfigurationSection settings, Location loc) {
-        if (settings != null && settings.getBoolean("enable-explosion", false)) {
-            float power = (float) settings.getDouble("explosion-power", 1.0);
-            boolean breakBlocks = settings.getBoolean("explosion-breaks-blocks", true);
-            boolean setFire = settings.getBoolean("explosion-sets-fire", false);
-            loc.getWorld().createExplosion(loc, power, setFire, breakBlocks);
+    private void createExplosionIfEnabled(ExplosionSettings settings, Location loc) {
+        if (settings != null && settings.explosionEnabled()) {
+            loc.getWorld().createExplosion(loc, settings.power(), settings.setFire(), settings.breakBlocks());
         }
     }
 
-    private void spawnGuardian(Location coreLocation) {
-        ConfigurationSection possibleGuardians = configManager.getPossibleGuardians();
-        if (possibleGuardians == null) return;
-
-        List<String> enabled = new ArrayList<>();
-        for (String key : possibleGuardians.getKeys(false)) {
-            ConfigurationSection data = possibleGuardians.getConfigurationSection(key);
-            if (data != null && data.getBoolean("enabled", false)) {
-                enabled.add(key);
-            }
-        }
+    private void spawnGuardian(Location coreLocation, List<GuardianType> enabled) {
+        // Список включённых охранников собран при загрузке конфига
         if (enabled.isEmpty()) return;
 
-        String id = enabled.get(random.nextInt(enabled.size()));
-        ConfigurationSection data = possibleGuardians.getConfigurationSection(id);
-        if (data == null) return;
-        if (random.nextInt(100) >= data.getInt("chance", 10)) return;
+        GuardianType data = enabled.get(random.nextInt(enabled.size()));
+        if (random.nextInt(100) >= data.chance()) return;
 
         Location spawn = coreLocation.clone().add(
                 (random.nextInt(3) - 1) * 2.0,
@@ -312,22 +382,12 @@ public class MeteoriteGenerator {
                 (random.nextInt(3) - 1) * 2.0
         );
 
-        EntityType type;
-        try {
-            type = EntityType.valueOf(data.getString("guardian-mob-type", "ZOMBIE").trim().toUpperCase());
-        } catch (Exception e) {
-            plugin.getLogger().warning(langManager.getMessage("error.invalid_mob_type", "type", data.getString("guardian-mob-type")));
-            return;
-        }
-
-        if (!type.isAlive()) return;
-        LivingEntity guardian = (LivingEntity) coreLocation.getWorld().spawnEntity(spawn, type);
+        LivingEntity guardian = (LivingEntity) coreLocation.getWorld().spawnEntity(spawn, data.mobType());
 
-        guardian.setCustomName(ChatColor.translateAlternateColorCodes('&',
-                data.getString("guardian-display-name", "Охранник")));
+        guardian.setCustomName(data.displayName());
         guardian.setCustomNameVisible(true);
 
-        double health = data.getDouble("guardian-health", 20.0);
+        double health = data.health();
         AttributeInstance maxHealthAttr = guardian.getAttribute(Attribute.GENERIC_MAX_HEALTH);
         if (maxHealthAttr != null) {
             maxHealthAttr.setBaseValue(health);
@@ -336,40 +396,37 @@ public class MeteoriteGenerator {
 
         AttributeInstance attackAttr = guardian.getAttribute(Attribute.GENERIC_ATTACK_DAMAGE);
         if (attackAttr != null) {
-            attackAttr.setBaseValue(data.getDouble("guardian-attack-damage", 5.0));
+            attackAttr.setBaseValue(data.attackDamage());
         }
 
         AttributeInstance speedAttr = guardian.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
         if (speedAttr != null) {
-            speedAttr.setBaseValue(data.getDouble("guardian-movement-speed", 0.25));
+            speedAttr.setBaseValue(data.movementSpeed());
         }
 
-        if (data.getBoolean("enable-guardian-equipment", false)) {
-            ConfigurationSection equipSec = data.getConfigurationSection("guardian-equipment");
-            if (equipSec != null) {
-                EntityEquipment equip = guardian.getEquipment();
-                if (equip != null) {
-                    equip.setItem(EquipmentSlot.HAND, createItemStack(equipSec.getString("main-hand")));
-                    equip.setItem(EquipmentSlot.OFF_HAND, createItemStack(equipSec.getString("off-hand")));
-                    equip.setItem(EquipmentSlot.HEAD, createItemStack(equipSec.getString("helmet")));
-                    equip.setItem(EquipmentSlot.CHEST, createItemStack(equipSec.getString("chestplate")));
-                    equip.setItem(EquipmentSlot.LEGS, createItemStack(equipSec.getString("leggings")));
-                    equip.setItem(EquipmentSlot.FEET, createItemStack(equipSec.getString("boots")));
-
-                    try {
-                        equip.setHelmetDropChance(0f);
-                        equip.setChestplateDropChance(0f);
-                        equip.setLeggingsDropChance(0f);
-                        equip.setBootsDropChance(0f);
-                        equip.setItemInMainHandDropChance(0f);
-                        equip.setItemInOffHandDropChance(0f);
-                    } catch (NoSuchMethodError ignored) {
-                    }
+        if (data.equipmentEnabled()) {
+            EntityEquipment equip = guardian.getEquipment();
+            if (equip != null) {
+                equip.setItem(EquipmentSlot.HAND, createItemStack(data.mainHand()));
+                equip.setItem(EquipmentSlot.OFF_HAND, createItemStack(data.offHand()));
+                equip.setItem(EquipmentSlot.HEAD, createItemStack(data.helmet()));
+                equip.setItem(EquipmentSlot.CHEST, createItemStack(data.chestplate()));
+                equip.setItem(EquipmentSlot.LEGS, createItemStack(data.leggings()));
+                equip.setItem(EquipmentSlot.FEET, createItemStack(data.boots()));
+
+                try {
+                    equip.setHelmetDropChance(0f);
+                    equip.setChestplateDropChance(0f);
+                    equip.setLeggingsDropChance(0f);
+                    equip.setBootsDropChance(0f);
+                    equip.setItemInMainHandDropChance(0f);
+                    equip.setItemInOffHandDropChance(0f);
+                } catch (NoSuchMethodError ignored) {
                 }
             }
         }
 
-        String msg = data.getString("player-message");
+        String msg = data.playerMessage();
         if (msg != null && !msg.isEmpty()) {
             msg = langManager.processPlaceholders(msg);
             for (Player p : Bukkit.getOnlinePlayers()) {
@@ -380,81 +437,58 @@ public class MeteoriteGenerator {
             }
         }
 
-        String soundName = data.getString("guardian-spawn-sound");
-        if (soundName != null && !soundName.trim().isEmpty()) {
-            try {
-                Sound sound = Sound.valueOf(soundName.trim().toUpperCase());
-                float vol = (float) data.getDouble("guardian-spawn-sound-volume", 1.0);
-                float pitch = (float) data.getDouble("guardian-spawn-sound-pitch", 1.0);
-                coreLocation.getWorld().playSound(spawn, sound, vol, pitch);
-            } catch (Exception e) {
-                plugin.getLogger().warning(langManager.getMessage("error.invalid_sound", "sound", soundName));
-            }
+        if (data.spawnSound() != null) {
+            coreLocation.getWorld().playSound(spawn, data.spawnSound(), data.soundVolume(), data.soundPitch());
         }
     }
 
-    private ItemStack createItemStack(String materialName) {
-        if (materialName == null || materialName.trim().isEmpty()) return null;
-        Material mat = Material.matchMaterial(materialName.trim().toUpperCase());
+    private ItemStack createItemStack(Material mat) {
         return (mat != null) ? new ItemStack(mat) : null;
     }
 
-    private void scheduleCleanup(Location coreLocation, int radius, int delaySeconds, int meteorId) {
-        BukkitRunnable runnable = new BukkitRunnable() {
-            @Override
-            public void run() {
-                World world = coreLocation.getWorld();
-                if (world == null) {
-                    cleanupTasks.remove(getTaskId());
-                    meteoriteBlocks.remove(meteorId);
-                    return;
-                }
-
-                Set<Location> blocks = meteoriteBlocks.remove(meteorId);
-                if (blocks != null && !blocks.isEmpty()) {
-                    for (Location loc : blocks) {
-                        Block b = loc.getBlock();
-                        if (b.getType() != Material.AIR) {
-                            b.setType(Material.AIR);
-                        }
-                    }
-                } else {
-                    // Fallback: очистка по радиусу
-                    for (int dx = -radius; dx <= radius; dx++) {
-                        for (int dy = -radius; dy <= radius; dy++) {
-                            for (int dz = -radius; dz <= radius; dz++) {
-                                double dist = Math.sqrt(dx * dx + dy * dy + dz * dz);
-                                if (dist <= radius) {
-                                    Block b = coreLocation.clone().add(dx, dy, dz).getBlock();
-                                    if (b.getType() != Material.AIR) {
-                                        b.setType(Material.AIR);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+    /** Блок приземлился (EntityChangeBlockEvent); чужие FallingBlock отсеиваются по id. */
+    public void onMeteorBlockLanded(int entityId, Block block) {
+        UUID meteorId = impactTracker.meteorOf(entityId);
+        if (meteorId == null) return;
+        addMeteoriteBlock(meteorId, block);
+        impactTracker.landed(entityId);
+    }
 
-                cleanupTasks.remove(getTaskId());
-                plugin.getLogger().info(langManager.getMessage("cleanup.fallback_cleaned", "id", String.valueOf(meteorId)));
-            }
-        };
+    /** Блок метеорита удалён из мира — разбился, выгружен или приземлился. */
+    public void onMeteorBlockRemoved(int entityId) {
+        impactTracker.removed(entityId);
+    }
 
-        BukkitTask task = runnable.runTaskLater(plugin, delaySeconds * 20L);
-        cleanupTasks.put(task.getTaskId(), task);
+    public void addMeteoriteBlock(UUID meteorId, Block block) {
+        meteoriteManager.recordBlock(meteorId, block.getX(), block.getY(), block.getZ());
     }
 
-    public void addMeteoriteBlock(int meteorId, Location location) {
-        meteoriteBlocks.computeIfAbsent(meteorId, id -> new HashSet<>())
-                .add(location.clone());
+    public MeteoriteEffects getEffects() { return effects; }
+    public SpawnPipeline getSpawnPipeline() { return spawnPipeline; }
+    public ImpactTracker getImpactTracker() { return impactTracker; }
+    public ChunkTickets getChunkTickets() { return chunkTickets; }
+
+    public int getDisplayEntities() {
+        int total = 0;
+        for (DisplayMeteor meteor : activeDisplays) total += meteor.getEntityCount();
+        return total;
     }
 
     public void cancelCleanupTasks() {
-        for (BukkitTask task : cleanupTasks.values()) {
-            try { task.cancel(); } catch (Exception ignored) {}
-        }
-        cleanupTasks.clear();
-        meteoriteBlocks.clear();
+        spawnPipeline.cancelAll();
+        impactTracker.cancelAll();
+        effects.getTicker().cancelAll();
+        for (DisplayMeteor meteor : activeDisplays) meteor.discard();
+        activeDisplays.clear();
+        chunkTickets.releaseAll();
+    }
+
+    /**
+     * Запускает метеорит в лучшей из нескольких случайных точек
+     * (рельеф оценивается по снимкам чанков вне основного потока).
+     */
+    public void createRandomMeteoriteAsync(MeteoriteType type) {
+        spawnSiteSelector.select(type, loc -> createMeteoriteAtAsync(loc, type));
     }
 
     public Location findRandomSpawnLocation() {
@@ -0,0 +1,127 @@
+package me.n1xend.meteorites.generator;
+
+import me.n1xend.meteorites.BlockLedger;
+import me.n1xend.meteorites.config.MeteoriteType;
+import org.bukkit.block.data.BlockData;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Блоки, которые плагин ставит сам при ударе, восстанавливаются по геометрии, центру
+ * и маске поставленных ячеек: геометрия — {@link MeteoriteShape}, блок каждой позиции —
+ * {@link BlockSampler#sample(long, int)}. Хранить их список не нужно.
+ * Приземлившиеся FallingBlock сюда не входят — их положение решает физика.
+ * <p>
+ * Ячейки нумеруются в порядке обхода: слои ядро → внутренний → внешний, внутри слоя —
+ * порядок смещений {@link MeteoriteShape}. Бит маски — ячейка действительно поставлена,
+ * а не пропущена из-за твёрдого рельефа.
+ */
+public final class MeteoriteLayout {
+
+    /** Какие слои ставятся блоками при ударе — зависит от режима отрисовки на момент спавна. */
+    public enum Placement {
+        /** FALLING_BLOCKS: всё падает, поставленных блоков нет. */
+        NONE,
+        /** HOLLOW_SHELL: скрытая внутренность. */
+        HIDDEN,
+        /** BLOCK_DISPLAY: вся сфера. */
+        FULL;
+
+        public static Placement of(RenderMode mode) {
+            return switch (mode) {
+                case BLOCK_DISPLAY -> FULL;
+                case HOLLOW_SHELL -> HIDDEN;
+                default -> NONE;
+            };
+        }
+    }
+
+    /**
+     * Геометрия метеорита на момент спавна: размеры слоёв и слои, у которых есть блоки.
+     * Хранится в записи метеорита — /meteor reload не сдвигает уже поставленные ячейки.
+     *
+     * @param layers бит {@code 1 << layer} — слой присутствует
+     */
+    public record Geometry(int coreSize, int innerSize, int outerSize, int layers) {
+
+        public static Geometry of(MeteoriteType type) {
+            MeteoriteShape shape = type.shape();
+            BlockSampler[] samplers = {type.coreBlocks(), type.innerBlocks(), type.outerBlocks()};
+            int layers = 0;
+            for (int layer = 0; layer < MeteoriteShape.LAYER_COUNT; layer++) {
+                if (samplers[layer] != null) layers |= 1 << layer;
+            }
+            return new Geometry(shape.getCoreSize(), shape.getInnerSize(), shape.getOuterSize(), layers);
+        }
+
+        public boolean hasLayer(int layer) { return (layers & 1 << layer) != 0; }
+
+        public MeteoriteShape shape() { return MeteoriteShape.of(coreSize, innerSize, outerSize); }
+
+        /** {@code core,inner,outer,layers} — для журнала. */
+        public String encode() { return coreSize + "," + innerSize + "," + outerSize + "," + layers; }
+
+        public static Geometry decode(String value) {
+            String[] parts = value.split(",");
+            return new Geometry(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlockVisitor {
+        /** @param index номер ячейки — бит в маске поставленных */
+        void accept(int index, int x, int y, int z, BlockData data);
+    }
+
+    private MeteoriteLayout() {}
+
+    /** Обходит задуманные блоки метеорита в мировых координатах. */
+    public static void forEach(MeteoriteType type, Placement placement, long seed,
+                               int centerX, int centerY, int centerZ, BlockVisitor visitor) {
+        if (placement == Placement.NONE) return;
+        MeteoriteShape shape = type.shape();
+        BlockSampler[] samplers = {type.coreBlocks(), type.innerBlocks(), type.outerBlocks()};
+        int index = 0;
+        for (int layer = 0; layer < MeteoriteShape.LAYER_COUNT; layer++) {
+            BlockSampler sampler = samplers[layer];
+            if (sampler == null) continue;
+            for (int packed : offsets(shape, placement, layer)) {
+                visitor.accept(index++,
+                        centerX + MeteoriteShape.unpackX(packed),
+                        centerY + MeteoriteShape.unpackY(packed),
+                        centerZ + MeteoriteShape.unpackZ(packed),
+                        sampler.sample(seed, packed));
+            }
+        }
+    }
+
+    /**
+     * Позиции поставленных блоков, упакованные {@link BlockLedger#pack}.
+     * От сида и текущего конфига не зависят — только от геометрии и маски.
+     */
+    public static long[] positions(Geometry geometry, Placement placement, BitSet placed,
+                                   int centerX, int centerY, int centerZ) {
+        if (placement == Placement.NONE || placed.isEmpty()) return new long[0];
+        MeteoriteShape shape = geometry.shape();
+        long[] positions = new long[placed.cardinality()];
+        int count = 0;
+        int index = 0;
+        for (int layer = 0; layer < MeteoriteShape.LAYER_COUNT; layer++) {
+            if (!geometry.hasLayer(layer)) continue;
+            for (int packed : offsets(shape, placement, layer)) {
+                if (placed.get(index++) && count < positions.length) {
+                    positions[count++] = BlockLedger.pack(centerX + MeteoriteShape.unpackX(packed),
+                            centerY + MeteoriteShape.unpackY(packed),
+                            centerZ + MeteoriteShape.unpackZ(packed));
+                }
+            }
+        }
+        return count == positions.length ? positions : Arrays.copyOf(positions, count);
+    }
+
+    private static int[] offsets(MeteoriteShape shape, Placement placement, int layer) {
+        return placement == Placement.FULL ? shape.layer(layer) : shape.hidden(layer);
+    }
+}
@@ -0,0 +1,169 @@
+package me.n1xend.meteorites.generator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Предрасчитанная геометрия метеорита — смещения блоков каждого слоя относительно ядра.
+ * Шаблоны кэшируются по (coreSize, innerSize, outerSize), поэтому сфера считается
+ * один раз на тип, а спавн просто проходит по упакованным смещениям.
+ */
+public final class MeteoriteShape {
+
+    // 10 бит на ось: смещения в диапазоне [-512; 511]
+    private static final int AXIS_BITS = 10;
+    private static final int AXIS_MASK = (1 << AXIS_BITS) - 1;
+    private static final int AXIS_BIAS = 1 << (AXIS_BITS - 1);
+    private static final int MAX_SIZE = AXIS_BIAS - 1;
+
+    public static final int LAYER_CORE = 0;
+    public static final int LAYER_INNER = 1;
+    public static final int LAYER_OUTER = 2;
+    public static final int LAYER_COUNT = 3;
+
+    private static final Map<Long, MeteoriteShape> CACHE = new ConcurrentHashMap<>();
+
+    private final int coreSize;
+    private final int innerSize;
+    private final int outerSize;
+    private final int[] core;
+    private final int[] inner;
+    private final int[] outer;
+    // Видимая оболочка (есть сосед вне сферы) и скрытая внутренность по слоям
+    private final int[][] visible = new int[LAYER_COUNT][];
+    private final int[][] hidden = new int[LAYER_COUNT][];
+
+    private MeteoriteShape(int coreSize, int innerSize, int outerSize) {
+        this.coreSize = coreSize;
+        this.innerSize = innerSize;
+        this.outerSize = outerSize;
+
+        int[] coreBuf = new int[16];
+        int[] innerBuf = new int[64];
+        int[] outerBuf = new int[256];
+        int coreCount = 0, innerCount = 0, outerCount = 0;
+
+        // Сравниваем квадраты расстояний — без Math.sqrt
+        double coreLimit = squaredLimit(coreSize);
+        double innerLimit = squaredLimit(innerSize);
+        double outerLimit = squaredLimit(outerSize);
+
+        for (int x = -outerSize; x <= outerSize; x++) {
+            for (int y = -outerSize; y <= outerSize; y++) {
+                for (int z = -outerSize; z <= outerSize; z++) {
+                    int distSq = x * x + y * y + z * z;
+                    int packed = pack(x, y, z);
+                    if (distSq <= coreLimit) {
+                        if (coreCount == coreBuf.length) coreBuf = grow(coreBuf);
+                        coreBuf[coreCount++] = packed;
+                    } else if (distSq <= innerLimit) {
+                        if (innerCount == innerBuf.length) innerBuf = grow(innerBuf);
+                        innerBuf[innerCount++] = packed;
+                    } else if (distSq <= outerLimit) {
+                        if (outerCount == outerBuf.length) outerBuf = grow(outerBuf);
+                        outerBuf[outerCount++] = packed;
+                    }
+                }
+            }
+        }
+
+        this.core = Arrays.copyOf(coreBuf, coreCount);
+        this.inner = Arrays.copyOf(innerBuf, innerCount);
+        this.outer = Arrays.copyOf(outerBuf, outerCount);
+        splitSurface();
+    }
+
+    private void splitSurface() {
+        int side = outerSize * 2 + 1;
+        boolean[] filled = new boolean[side * side * side];
+        int[][] layers = {core, inner, outer};
+        for (int[] layer : layers) {
+            for (int packed : layer) filled[cellIndex(packed, side)] = true;
+        }
+
+        for (int i = 0; i < LAYER_COUNT; i++) {
+            int[] layer = layers[i];
+            int[] visibleBuf = new int[layer.length];
+            int[] hiddenBuf = new int[layer.length];
+            int visibleCount = 0, hiddenCount = 0;
+            for (int packed : layer) {
+                if (isSurface(packed, filled, side)) visibleBuf[visibleCount++] = packed;
+                else hiddenBuf[hiddenCount++] = packed;
+            }
+            visible[i] = Arrays.copyOf(visibleBuf, visibleCount);
+            hidden[i] = Arrays.copyOf(hiddenBuf, hiddenCount);
+        }
+    }
+
+    private boolean isSurface(int packed, boolean[] filled, int side) {
+        int x = unpackX(packed), y = unpackY(packed), z = unpackZ(packed);
+        return !isFilled(x + 1, y, z, filled, side) || !isFilled(x - 1, y, z, filled, side)
+                || !isFilled(x, y + 1, z, filled, side) || !isFilled(x, y - 1, z, filled, side)
+                || !isFilled(x, y, z + 1, filled, side) || !isFilled(x, y, z - 1, filled, side);
+    }
+
+    private boolean isFilled(int x, int y, int z, boolean[] filled, int side) {
+        if (Math.abs(x) > outerSize || Math.abs(y) > outerSize || Math.abs(z) > outerSize) return false;
+        return filled[((x + outerSize) * side + (y + outerSize)) * side + (z + outerSize)];
+    }
+
+    private int cellIndex(int packed, int side) {
+        return ((unpackX(packed) + outerSize) * side + (unpackY(packed) + outerSize)) * side + (unpackZ(packed) + outerSize);
+    }
+
+    public static MeteoriteShape of(int coreSize, int innerSize, int outerSize) {
+        int c = clampSize(coreSize);
+        int i = clampSize(innerSize);
+        int o = clampSize(outerSize);
+        long key = ((long) c << 32) | ((long) i << 16) | o;
+        return CACHE.computeIfAbsent(key, k -> new MeteoriteShape(c, i, o));
+    }
+
+    public static void clearCache() { CACHE.clear(); }
+
+    // === УПАКОВКА СМЕЩЕНИЙ ===
+    public static int pack(int dx, int dy, int dz) {
+        return ((dx + AXIS_BIAS) & AXIS_MASK) << (AXIS_BITS * 2)
+                | ((dy + AXIS_BIAS) & AXIS_MASK) << AXIS_BITS
+                | ((dz + AXIS_BIAS) & AXIS_MASK);
+    }
+
+    public static int unpackX(int packed) { return ((packed >>> (AXIS_BITS * 2)) & AXIS_MASK) - AXIS_BIAS; }
+    public static int unpackY(int packed) { return ((packed >>> AXIS_BITS) & AXIS_MASK) - AXIS_BIAS; }
+    public static int unpackZ(int packed) { return (packed & AXIS_MASK) - AXIS_BIAS; }
+
+    // Исходная граница слоя: dist <= size - 0.5
+    private static double squaredLimit(int size) {
+        double limit = size - 0.5;
+        return limit < 0 ? -1 : limit * limit;
+    }
+
+    private static int clampSize(int size) { return Math.max(0, Math.min(size, MAX_SIZE)); }
+
+    private static int[] grow(int[] buf) { return Arrays.copyOf(buf, buf.length * 2); }
+
+    /** Массивы общие для всех спавнов — не изменять. */
+    public int[] core() { return core; }
+    public int[] inner() { return inner; }
+    public int[] outer() { return outer; }
+
+    public int[] layer(int layer) {
+        return switch (layer) {
+            case LAYER_CORE -> core;
+            case LAYER_INNER -> inner;
+            default -> outer;
+        };
+    }
+
+    /** Блоки слоя, видимые снаружи во время падения. */
+    public int[] visible(int layer) { return visible[layer]; }
+
+    /** Блоки слоя, полностью закрытые соседями — ставятся сразу при ударе. */
+    public int[] hidden(int layer) { return hidden[layer]; }
+
+    public int getCoreSize() { return coreSize; }
+    public int getInnerSize() { return innerSize; }
+    public int getOuterSize() { return outerSize; }
+    public int getBlockCount() { return core.length + inner.length + outer.length; }
+}
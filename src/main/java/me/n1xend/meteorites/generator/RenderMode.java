@@ -0,0 +1,22 @@
+package me.n1xend.meteorites.generator;
+
+/**
+ * Способ отрисовки падающего метеорита ({@code settings.render-mode}).
+ */
+public enum RenderMode {
+    /** Каждый блок сферы — отдельный FallingBlock (классическое поведение). */
+    FALLING_BLOCKS,
+    /** Падает только видимая оболочка, скрытая внутренность ставится при ударе. */
+    HOLLOW_SHELL,
+    /** Десятки BlockDisplay вместо сотен FallingBlock; блоки ставятся при ударе. */
+    BLOCK_DISPLAY;
+
+    public static RenderMode parse(String name) {
+        if (name == null) return FALLING_BLOCKS;
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return FALLING_BLOCKS;
+        }
+    }
+}
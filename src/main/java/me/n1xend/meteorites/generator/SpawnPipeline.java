@@ -0,0 +1,132 @@
+package me.n1xend.meteorites.generator;
+
+import me.n1xend.meteorites.config.ConfigManager;
+import org.bukkit.entity.FallingBlock;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Конвейер спавна FallingBlock'ов метеоритов.
+ * В режиме {@code settings.spawn-pipeline.enabled} позиции слоёв ставятся в очередь и
+ * спавнятся в течение нескольких тиков в пределах бюджета блоков и наносекунд на тик.
+ * Порядок слоёв сохраняется: ядро → внутренний → внешний.
+ */
+public class SpawnPipeline {
+
+    /** Спавнит один блок слоя; {@code null} — позиция пропущена. */
+    @FunctionalInterface
+    public interface BlockSpawner {
+        FallingBlock spawn(int layer, int packedOffset);
+    }
+
+    private static final class Job {
+        private final int[][] layers;
+        private final BlockSpawner spawner;
+        private final Consumer<List<FallingBlock>> onBatch;
+        private final Runnable onComplete;
+        private int layer;
+        private int index;
+
+        private Job(int[][] layers, BlockSpawner spawner,
+                    Consumer<List<FallingBlock>> onBatch, Runnable onComplete) {
+            this.layers = layers;
+            this.spawner = spawner;
+            this.onBatch = onBatch;
+            this.onComplete = onComplete;
+        }
+
+        private boolean hasNext() {
+            while (layer < layers.length && index >= layers[layer].length) {
+                layer++;
+                index = 0;
+            }
+            return layer < layers.length;
+        }
+
+        private FallingBlock next() {
+            return spawner.spawn(layer, layers[layer][index++]);
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private BukkitTask task;
+
+    public SpawnPipeline(JavaPlugin plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    /**
+     * Спавнит метеорит сразу или через очередь — в зависимости от конфига.
+     * {@code onBatch} получает каждую порцию заспавненных блоков, {@code onComplete} — вызывается после последней.
+     */
+    public void submit(int[][] layers, BlockSpawner spawner,
+                       Consumer<List<FallingBlock>> onBatch, Runnable onComplete) {
+        Job job = new Job(layers, spawner, onBatch, onComplete);
+        if (!configManager.isSpawnPipelineEnabled()) {
+            runNow(job);
+            return;
+        }
+        queue.addLast(job);
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 0L, 1L);
+        }
+    }
+
+    private void runNow(Job job) {
+        List<FallingBlock> spawned = new ArrayList<>();
+        while (job.hasNext()) {
+            FallingBlock fb = job.next();
+            if (fb != null) spawned.add(fb);
+        }
+        if (!spawned.isEmpty()) job.onBatch.accept(spawned);
+        job.onComplete.run();
+    }
+
+    private void tick() {
+        int budget = Math.max(1, configManager.getSpawnPipelineMaxBlocks());
+        long deadline = System.nanoTime() + Math.max(0L, configManager.getSpawnPipelineMaxNanos());
+
+        while (budget > 0 && !queue.isEmpty()) {
+            Job job = queue.peekFirst();
+            List<FallingBlock> batch = new ArrayList<>();
+            while (budget > 0 && job.hasNext()) {
+                FallingBlock fb = job.next();
+                if (fb != null) batch.add(fb);
+                budget--;
+                // Проверяем время не на каждом блоке — nanoTime тоже не бесплатный
+                if ((budget & 7) == 0 && System.nanoTime() >= deadline) budget = 0;
+            }
+            if (!batch.isEmpty()) job.onBatch.accept(batch);
+            if (!job.hasNext()) {
+                queue.pollFirst();
+                job.onComplete.run();
+            }
+        }
+
+        if (queue.isEmpty()) stop();
+    }
+
+    public int getQueuedJobs() { return queue.size(); }
+
+    /** Отменяет незавершённые спавны (выключение плагина). */
+    public void cancelAll() {
+        queue.clear();
+        stop();
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package me.n1xend.meteorites.generator;
+
+import me.n1xend.meteorites.config.ConfigManager;
+import me.n1xend.meteorites.config.MeteoriteType;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Выбор места для случайного метеорита: берёт {@code settings.spawn-selection.candidates}
+ * случайных точек, оценивает рельеф каждой по ChunkSnapshot вне основного потока
+ * и возвращает лучшую. Мир синхронно трогает только сам снимок чанка.
+ */
+public class SpawnSiteSelector {
+
+    // Шаг сетки выборки высот внутри чанка
+    private static final int SAMPLE_STEP = 2;
+
+    private record Candidate(Location location, ChunkSnapshot snapshot) {}
+
+    /** Веса и чёрные списки, собранные в основном потоке перед оценкой. */
+    private record Scoring(double variance, double fluid, double biome, double blacklist,
+                           Set<String> biomes, Set<Material> blocks) {}
+
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final Supplier<Location> randomLocation;
+
+    public SpawnSiteSelector(JavaPlugin plugin, ConfigManager configManager, Supplier<Location> randomLocation) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.randomLocation = randomLocation;
+    }
+
+    /**
+     * Подбирает точку спавна и передаёт её в {@code onSelected} в основном потоке.
+     * Если ни одну точку не удалось получить, колбэк не вызывается.
+     */
+    public void select(MeteoriteType type, Consumer<Location> onSelected) {
+        int count = Math.max(1, configManager.getSpawnCandidates());
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location loc = randomLocation.get();
+            if (loc == null) return;
+            locations.add(loc);
+        }
+        if (count == 1) {
+            onSelected.accept(locations.get(0));
+            return;
+        }
+
+        Scoring scoring = compileScoring();
+        int radius = Math.min(type.outerSize(), 7);
+
+        // Paper завершает getChunkAtAsync в основном потоке — снимок берётся там же
+        List<CompletableFuture<Candidate>> futures = new ArrayList<>(count);
+        for (Location loc : locations) {
+            World world = loc.getWorld();
+            futures.add(world.getChunkAtAsync(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)
+                    .thenApply(chunk -> new Candidate(loc, chunk.getChunkSnapshot(true, true, false)))
+                    .exceptionally(error -> null));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenRun(() -> {
+            if (!plugin.isEnabled()) return;
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                Location best = locations.get(0);
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (CompletableFuture<Candidate> future : futures) {
+                    Candidate candidate = future.join();
+                    if (candidate == null) continue;
+                    double score = score(candidate, radius, scoring);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = candidate.location();
+                    }
+                }
+
+                Location chosen = best;
+                if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, () -> onSelected.accept(chosen));
+            });
+        });
+    }
+
+    private Scoring compileScoring() {
+        Set<String> biomes = new HashSet<>();
+        for (String biome : configManager.getSpawnBiomeBlacklist()) biomes.add(biome.toLowerCase(Locale.ROOT));
+
+        Set<Material> blocks = EnumSet.noneOf(Material.class);
+        for (String name : configManager.getSpawnBlockBlacklist()) {
+            Material mat = Material.matchMaterial(name.toUpperCase(Locale.ROOT));
+            if (mat != null) blocks.add(mat);
+        }
+
+        return new Scoring(configManager.getSpawnVarianceWeight(), configManager.getSpawnFluidWeight(),
+                configManager.getSpawnBiomeWeight(), configManager.getSpawnBlacklistWeight(), biomes, blocks);
+    }
+
+    /**
+     * Оценка точки: 0 — идеально ровная суша, каждый недостаток вычитает свой вес.
+     * Выборка ограничена чанком кандидата — соседние чанки ради оценки не грузятся.
+     */
+    private static double score(Candidate candidate, int radius, Scoring scoring) {
+        ChunkSnapshot snapshot = candidate.snapshot();
+        int centerX = candidate.location().getBlockX() & 15;
+        int centerZ = candidate.location().getBlockZ() & 15;
+        int minX = Math.max(0, centerX - radius), maxX = Math.min(15, centerX + radius);
+        int minZ = Math.max(0, centerZ - radius), maxZ = Math.min(15, centerZ + radius);
+
+        int samples = 0, fluid = 0, blacklisted = 0;
+        double sum = 0, sumSquares = 0;
+        for (int x = minX; x <= maxX; x += SAMPLE_STEP) {
+            for (int z = minZ; z <= maxZ; z += SAMPLE_STEP) {
+                int y = snapshot.getHighestBlockYAt(x, z);
+                Material top = snapshot.getBlockType(x, y, z);
+                if (top == Material.WATER || top == Material.LAVA) fluid++;
+                if (scoring.blocks().contains(top)) blacklisted++;
+                sum += y;
+                sumSquares += (double) y * y;
+                samples++;
+            }
+        }
+
+        double mean = sum / samples;
+        double deviation = Math.sqrt(Math.max(0, sumSquares / samples - mean * mean));
+
+        double score = -scoring.variance() * deviation
+                - scoring.fluid() * fluid / samples
+                - scoring.blacklist() * blacklisted / samples;
+
+        int centerY = snapshot.getHighestBlockYAt(centerX, centerZ);
+        String biome = snapshot.getBiome(centerX, centerY, centerZ).getKey().getKey();
+        if (scoring.biomes().contains(biome)) score -= scoring.biome();
+
+        return score;
+    }
+}
@@ -1,9 +1,9 @@
 package me.n1xend.meteorites.generator;
 
 import me.n1xend.meteorites.LangManager;
+import me.n1xend.meteorites.config.TreasureSettings;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemFlag;
@@ -12,27 +12,19 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.LeatherArmorMeta;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class TreasureLoot {
 
     private static final Random RANDOM = new Random();
 
-    public static void fillChest(Inventory inventory, ConfigurationSection lootTable, LangManager langManager) {
-        if (lootTable == null) return;
+    public static void fillChest(Inventory inventory, List<TreasureSettings.Item> lootTable, LangManager langManager) {
+        if (lootTable == null || lootTable.isEmpty()) return;
 
         List<ItemStack> items = new ArrayList<>();
 
-        for (String key : lootTable.getKeys(false)) {
-            ConfigurationSection entry = lootTable.getConfigurationSection(key);
-            if (entry == null) continue;
-            if (!entry.getBoolean("enabled", true)) continue;
-
-            double chance = entry.getDouble("chance", 100.0);
-            if (RANDOM.nextDouble() * 100.0 > chance) continue;
-
-            ItemStack item = createItem(entry, langManager);
-            if (item != null) items.add(item);
+        for (TreasureSettings.Item entry : lootTable) {
+            if (RANDOM.nextDouble() * 100.0 > entry.chance()) continue;
+            items.add(createItem(entry, langManager));
         }
 
         Collections.shuffle(items);
@@ -41,34 +33,13 @@ public class TreasureLoot {
         }
     }
 
-    private static ItemStack createItem(ConfigurationSection entry, LangManager langManager) {
-        String materialName = entry.getString("item-type");
-        if (materialName == null) return null;
-        Material mat = Material.matchMaterial(materialName.toUpperCase());
-        if (mat == null) return null;
-
-        // Поддержка диапазона количества, например: "4-12"
-        int amount = 1;
-        String amountStr = entry.getString("amount", "1");
-        if (amountStr.contains("-")) {
-            String[] parts = amountStr.split("-", 2);
-            try {
-                int min = Integer.parseInt(parts[0].trim());
-                int max = Integer.parseInt(parts[1].trim());
-                if (min <= max) {
-                    amount = min + RANDOM.nextInt(max - min + 1);
-                } else {
-                    amount = min;
-                }
-            } catch (NumberFormatException ignored) {
-                amount = 1;
-            }
-        } else {
-            try {
-                amount = Integer.parseInt(amountStr.trim());
-            } catch (NumberFormatException ignored) {
-                amount = 1;
-            }
+    private static ItemStack createItem(TreasureSettings.Item entry, LangManager langManager) {
+        Material mat = entry.material();
+
+        // Диапазон количества разобран при загрузке конфига, например: "4-12"
+        int amount = entry.minAmount();
+        if (entry.maxAmount() > entry.minAmount()) {
+            amount += RANDOM.nextInt(entry.maxAmount() - entry.minAmount() + 1);
         }
         amount = Math.max(1, Math.min(amount, mat.getMaxStackSize()));
 
@@ -76,41 +47,27 @@ public class TreasureLoot {
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return item;
 
-        String rarity = entry.getString("rarity", "common").toLowerCase(Locale.ROOT);
+        String rarity = entry.rarity();
 
-        String displayName = entry.getString("display-name");
-        if (displayName != null && !displayName.trim().isEmpty()) {
-            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', displayName));
+        if (entry.displayName() != null) {
+            meta.setDisplayName(entry.displayName());
         }
 
-        List<String> lore = entry.getStringList("lore");
-        List<String> coloredLore = new ArrayList<>();
-        if (!lore.isEmpty()) {
-            coloredLore = lore.stream()
-                    .map(line -> ChatColor.translateAlternateColorCodes('&', line))
-                    .collect(Collectors.toList());
-        }
+        List<String> coloredLore = new ArrayList<>(entry.lore());
         coloredLore.add("");
         coloredLore.add(getRarityTag(rarity, langManager));
         meta.setLore(coloredLore);
 
-        if (entry.getBoolean("unbreakable", false)) {
+        if (entry.unbreakable()) {
             meta.setUnbreakable(true);
             meta.addItemFlags(ItemFlag.HIDE_UNBREAKABLE);
         }
 
         // Зачарования — ВИДИМЫЕ (как в ванильном столе)
-        ConfigurationSection enchants = entry.getConfigurationSection("enchants");
-        if (enchants != null) {
-            for (String enchantKey : enchants.getKeys(false)) {
-                Enchantment ench = Enchantment.getByName(enchantKey.toUpperCase());
-                if (ench == null) continue;
-                int level = enchants.getInt(enchantKey, 1);
-                if (level <= 0) continue;
-                meta.addEnchant(ench, level, true);
-            }
-            // НЕ скрываем зачарования — они должны быть видны!
+        for (Map.Entry<Enchantment, Integer> enchant : entry.enchants().entrySet()) {
+            meta.addEnchant(enchant.getKey(), enchant.getValue(), true);
         }
+        // НЕ скрываем зачарования — они должны быть видны!
 
         if (meta instanceof LeatherArmorMeta leatherMeta) {
             switch (rarity) {
@@ -0,0 +1,36 @@
+package me.n1xend.meteorites.listener;
+
+import me.n1xend.meteorites.ChunkMeteorStore;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Ленивая очистка: просроченные блоки метеоритов убираются,
+ * когда игрок снова загружает чанк.
+ */
+public class ChunkCleanupListener implements Listener {
+
+    private final JavaPlugin plugin;
+    private final ChunkMeteorStore store;
+
+    public ChunkCleanupListener(JavaPlugin plugin, ChunkMeteorStore store) {
+        this.plugin = plugin;
+        this.store = store;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (event.isNewChunk()) return;
+        Chunk chunk = event.getChunk();
+        if (!store.hasMeteors(chunk)) return;
+
+        // Блоки меняем уже после загрузки, а не внутри события
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (chunk.isLoaded()) store.cleanExpired(chunk, System.currentTimeMillis());
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package me.n1xend.meteorites;
+
+import me.n1xend.meteorites.generator.MeteoriteLayout.Geometry;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Placement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Бинарный снимок {@link MeteoriteSnapshot}: круговой прогон, отказ на порче и замер против YAML.
+ * Замер запускается только с {@code -Dmeteorites.benchmark=true}; YAML читается голым SnakeYAML,
+ * на котором стоит YamlConfiguration, — это нижняя граница старого пути.
+ */
+class MeteoriteSnapshotTest {
+
+    private static final int BLOCKS_PER_RECORD = 300;
+    private static final int RUNS = 15;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        List<MeteoriteData> written = records(64, new Random(1));
+        File file = dir.resolve("meteorites.dat").toFile();
+        MeteoriteSnapshot.write(file, written);
+        List<MeteoriteData> read = new ArrayList<>();
+        MeteoriteSnapshot.read(file, read::add);
+
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            MeteoriteData a = written.get(i), b = read.get(i);
+            assertEquals(a.getUuid(), b.getUuid(), "uuid #" + i);
+            assertEquals(a.getWorldName(), b.getWorldName(), "world #" + i);
+            assertEquals(a.getX(), b.getX(), "x #" + i);
+            assertEquals(a.getY(), b.getY(), "y #" + i);
+            assertEquals(a.getZ(), b.getZ(), "z #" + i);
+            assertEquals(a.getCreatedAt(), b.getCreatedAt(), "createdAt #" + i);
+            assertEquals(a.getCleanupDelayMs(), b.getCleanupDelayMs(), "cleanupDelayMs #" + i);
+            assertEquals(a.getMeteoriteMaterials(), b.getMeteoriteMaterials(), "materials #" + i);
+            assertEquals(a.getTypeId(), b.getTypeId(), "type #" + i);
+            assertEquals(a.getSeed(), b.getSeed(), "seed #" + i);
+            assertEquals(a.getPlacement(), b.getPlacement(), "placement #" + i);
+            assertEquals(a.getGeometry(), b.getGeometry(), "geometry #" + i);
+            assertEquals(a.getPlaced(), b.getPlaced(), "placed #" + i);
+            assertArrayEquals(a.getBlocks().toArray(), b.getBlocks().toArray(), "blocks #" + i);
+        }
+    }
+
+    @Test
+    void everyFlippedByteIsRejected() throws IOException {
+        File file = dir.resolve("meteorites.dat").toFile();
+        MeteoriteSnapshot.write(file, records(4, new Random(2)));
+        byte[] original = Files.readAllBytes(file.toPath());
+
+        // CRC32 ловит любую одиночную порчу, а испорченные длины и индексы
+        // не должны ронять чтение чем-то кроме IOException
+        for (int i = 0; i < original.length; i++) {
+            byte[] corrupt = original.clone();
+            corrupt[i] ^= (byte) 0x5A;
+            Files.write(file.toPath(), corrupt);
+            assertThrows(IOException.class, () -> MeteoriteSnapshot.read(file, data -> {}), "corrupt byte " + i);
+        }
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        File file = dir.resolve("meteorites.dat").toFile();
+        MeteoriteSnapshot.write(file, records(4, new Random(3)));
+        byte[] original = Files.readAllBytes(file.toPath());
+
+        for (int length : new int[]{0, 4, original.length / 2, original.length - 1}) {
+            Files.write(file.toPath(), Arrays.copyOf(original, length));
+            assertThrows(IOException.class, () -> MeteoriteSnapshot.read(file, data -> {}), "truncated to " + length);
+        }
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        File file = dir.resolve("meteorites.dat").toFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(MeteoriteSnapshot.MAGIC);
+            out.writeInt(MeteoriteSnapshot.VERSION + 1);
+        }
+        IOException e = assertThrows(IOException.class, () -> MeteoriteSnapshot.read(file, data -> {}));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+
+    // === ЗАМЕР ===
+
+    @Test
+    void benchmarkAgainstYaml() throws IOException {
+        assumeTrue(Boolean.getBoolean("meteorites.benchmark"), "set -Dmeteorites.benchmark=true to run");
+        for (int count : new int[]{1_000, 10_000}) benchmark(count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void benchmark(int count) throws IOException {
+        List<MeteoriteData> records = records(count, new Random(count));
+        File binary = dir.resolve("bench-" + count + ".dat").toFile();
+        File yaml = dir.resolve("bench-" + count + ".yml").toFile();
+        MeteoriteSnapshot.write(binary, records);
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (MeteoriteData data : records) maps.add(data.serialize());
+        Files.writeString(yaml.toPath(), new Yaml().dump(Map.of("meteorites", maps)));
+
+        long bestBinary = Long.MAX_VALUE, bestYaml = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long started = System.nanoTime();
+            List<MeteoriteData> fromBinary = new ArrayList<>(count);
+            MeteoriteSnapshot.read(binary, fromBinary::add);
+            bestBinary = Math.min(bestBinary, System.nanoTime() - started);
+
+            started = System.nanoTime();
+            LoaderOptions options = new LoaderOptions();
+            options.setCodePointLimit(Integer.MAX_VALUE);
+            Map<String, Object> root;
+            try (Reader reader = Files.newBufferedReader(yaml.toPath(), StandardCharsets.UTF_8)) {
+                root = new Yaml(options).load(reader);
+            }
+            List<MeteoriteData> fromYaml = new ArrayList<>(count);
+            for (Object raw : (List<Object>) root.get("meteorites")) fromYaml.add(new MeteoriteData((Map<String, Object>) raw));
+            bestYaml = Math.min(bestYaml, System.nanoTime() - started);
+
+            assertEquals(count, fromBinary.size());
+            assertEquals(count, fromYaml.size());
+        }
+        System.out.printf("%,d records: binary %,d KB / %.1f ms, YAML %,d KB / %.1f ms (best of %d)%n",
+                count, binary.length() / 1024, bestBinary / 1e6, yaml.length() / 1024, bestYaml / 1e6, RUNS);
+    }
+
+    // === ДАННЫЕ ===
+
+    /** Записи, похожие на настоящие: несколько миров и типов, ~300 блоков вокруг центра. */
+    private static List<MeteoriteData> records(int count, Random random) {
+        String[] worlds = {"world", "world_nether", "world_the_end"};
+        String[] types = {"iron_meteor", "nether_meteor", null};
+        Set<String> materials = Set.of("MAGMA_BLOCK", "OBSIDIAN", "ANCIENT_DEBRIS", "NETHERRACK");
+        List<MeteoriteData> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(20_000) - 10_000, y = 40 + random.nextInt(80), z = random.nextInt(20_000) - 10_000;
+            BlockLedger blocks = new BlockLedger();
+            for (int b = 0; b < BLOCKS_PER_RECORD; b++) {
+                blocks.add(x + random.nextInt(9) - 4, y + random.nextInt(8) - 4, z + random.nextInt(9) - 4);
+            }
+            // Примерно половина ячеек поставлена — нижняя полусфера ушла в рельеф
+            Placement placement = Placement.values()[i % Placement.values().length];
+            Geometry geometry = i % 5 == 0 ? null : new Geometry(1, 2, 3, 0b111);
+            BitSet placed = new BitSet();
+            if (geometry != null && placement != Placement.NONE) {
+                for (int cell = 0; cell < 123; cell++) if (random.nextBoolean()) placed.set(cell);
+            }
+            records.add(new MeteoriteData(new UUID(random.nextLong(), random.nextLong()), worlds[i % worlds.length],
+                    x, y, z, System.currentTimeMillis(), 3_600_000L, new HashSet<>(materials), types[i % types.length],
+                    random.nextLong(), placement, geometry, placed, blocks));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,94 @@
+package me.n1xend.meteorites;
+
+import me.n1xend.meteorites.config.TreasureSettings;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Geometry;
+import me.n1xend.meteorites.generator.MeteoriteLayout.Placement;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Контейнер сокровищ в ядре убирается вместе с метеоритом: его материал попадает
+ * в набор, по которому фильтруют и движок очистки, и запись в PDC чанка.
+ */
+class TreasureCleanupTest {
+
+    private static final Set<String> LAYERS = Set.of("OBSIDIAN", "STONE");
+    private static final int CORE_X = 10, CORE_Y = 64, CORE_Z = -20;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void landedChestIsCleaned() throws IOException {
+        assertNoContainerLeft(Material.CHEST);
+    }
+
+    @Test
+    void landedBarrelIsCleaned() throws IOException {
+        assertNoContainerLeft(Material.BARREL);
+    }
+
+    @Test
+    void disabledTreasureKeepsLayerMaterials() {
+        assertEquals(LAYERS, MeteoriteManager.cleanupMaterials(LAYERS, new TreasureSettings(false, Material.CHEST, List.of())));
+        // Другие контейнеры генератор не ставит
+        assertEquals(LAYERS, MeteoriteManager.cleanupMaterials(LAYERS, new TreasureSettings(true, Material.STONE, List.of())));
+    }
+
+    private void assertNoContainerLeft(Material container) throws IOException {
+        Set<String> materials = MeteoriteManager.cleanupMaterials(LAYERS, new TreasureSettings(true, container, List.of()));
+
+        // Мир после удара: слой вокруг ядра и контейнер в самом ядре, все позиции записаны в реестр
+        Map<Long, Material> world = new HashMap<>();
+        BlockLedger blocks = new BlockLedger();
+        place(world, blocks, CORE_X, CORE_Y, CORE_Z, container);
+        place(world, blocks, CORE_X + 1, CORE_Y, CORE_Z, Material.OBSIDIAN);
+        place(world, blocks, CORE_X, CORE_Y - 1, CORE_Z, Material.STONE);
+
+        MeteoriteData landed = new MeteoriteData(UUID.randomUUID(), "world", CORE_X, CORE_Y, CORE_Z,
+                System.currentTimeMillis(), 60_000L, materials, "iron_meteor", 42L, Placement.FULL,
+                new Geometry(1, 2, 3, 0b111), new BitSet(), blocks);
+
+        // Набор материалов переживает рестарт: очистка после загрузки снимка идёт по прочитанной записи
+        File file = dir.resolve("meteorites.dat").toFile();
+        MeteoriteSnapshot.write(file, List.of(landed));
+        List<MeteoriteData> restored = new ArrayList<>();
+        MeteoriteSnapshot.read(file, restored::add);
+        assertEquals(1, restored.size());
+
+        // PDC чанка хранит те же материалы строкой через запятую
+        String pdc = String.join(",", restored.get(0).getMeteoriteMaterials());
+        clean(world, restored.get(0).getBlocks(), Set.of(pdc.split(",")));
+
+        for (Material left : world.values()) {
+            assertNotEquals(Material.CHEST, left);
+            assertNotEquals(Material.BARREL, left);
+        }
+    }
+
+    private static void place(Map<Long, Material> world, BlockLedger blocks, int x, int y, int z, Material type) {
+        long packed = BlockLedger.pack(x, y, z);
+        world.put(packed, type);
+        blocks.add(packed);
+    }
+
+    // Тот же фильтр, что у CleanupEngine и ChunkMeteorStore: убирается только блок записанного материала
+    private static void clean(Map<Long, Material> world, BlockLedger blocks, Set<String> materialNames) {
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (String name : materialNames) {
+            Material mat = Material.matchMaterial(name);
+            if (mat != null) materials.add(mat);
+        }
+        for (long packed : blocks.toArray()) {
+            if (materials.contains(world.get(packed))) world.put(packed, Material.AIR);
+        }
+    }
+}